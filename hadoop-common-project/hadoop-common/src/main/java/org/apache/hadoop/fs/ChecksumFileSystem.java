@@ -22,18 +22,23 @@ import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
 
 import org.apache.hadoop.util.Preconditions;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.classification.InterfaceStability;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.impl.AbstractFSBuilderImpl;
+import org.apache.hadoop.fs.impl.CombinedFileRange;
 import org.apache.hadoop.fs.impl.FutureDataInputStreamBuilderImpl;
 import org.apache.hadoop.fs.impl.OpenFileParameters;
 import org.apache.hadoop.fs.permission.AclEntry;
@@ -45,6 +50,9 @@ import org.apache.hadoop.util.DataChecksum;
 import org.apache.hadoop.util.LambdaUtils;
 import org.apache.hadoop.util.Progressable;
 
+import static org.apache.hadoop.fs.VectoredReadUtils.mergeSortedRanges;
+import static org.apache.hadoop.fs.VectoredReadUtils.sliceToUnderlying;
+import static org.apache.hadoop.fs.VectoredReadUtils.validateAndSortRanges;
 import static org.apache.hadoop.fs.impl.PathCapabilitiesSupport.validatePathCapabilityArgs;
 import static org.apache.hadoop.fs.impl.StoreImplementationUtils.isProbeForSyncable;
 
@@ -223,6 +231,62 @@ public abstract class ChecksumFileSystem extends FilterFileSystem {
       }
       set(fs.verifyChecksum, null, 1, 0);
     }
+
+    /**
+     * Read the ranges, rounded to checksum chunks, and their checksums with
+     * vectored reads of the raw streams, and verify the data of each merged
+     * range once both reads complete.
+     */
+    @Override
+    public void readVectored(List<? extends FileRange> ranges,
+        IntFunction<ByteBuffer> allocate) throws IOException {
+      if (sums == null || !needChecksum()) {
+        datas.readVectored(ranges, allocate);
+        return;
+      }
+      final long length = fs.getFileStatus(file).getLen();
+      List<? extends FileRange> sortedRanges = validateAndSortRanges(ranges);
+      for (FileRange range : sortedRanges) {
+        if (range.getOffset() + range.getLength() > length) {
+          throw new EOFException("Range " + range + " extends beyond the "
+              + "end of " + file + " of length " + length);
+        }
+      }
+      List<CombinedFileRange> dataRanges = mergeSortedRanges(sortedRanges,
+          bytesPerSum, minSeekForVectorReads(), maxReadSizeForVectorReads());
+      List<FileRange> checksumRanges = new ArrayList<>(dataRanges.size());
+      for (CombinedFileRange range : dataRanges) {
+        // The last chunk of the file may be partial.
+        long end = Math.min(range.getOffset() + range.getLength(), length);
+        range.setLength((int) (end - range.getOffset()));
+        int chunks = (range.getLength() + bytesPerSum - 1) / bytesPerSum;
+        checksumRanges.add(FileRange.createFileRange(
+            getChecksumFilePos(range.getOffset()), chunks * CHECKSUM_SIZE));
+      }
+      datas.readVectored(dataRanges, allocate);
+      sums.readVectored(checksumRanges, allocate);
+      for (int i = 0; i < dataRanges.size(); i++) {
+        CombinedFileRange range = dataRanges.get(i);
+        CompletableFuture<ByteBuffer> verified = range.getData().thenCombine(
+            checksumRanges.get(i).getData(), (data, checksums) -> {
+              verifyChunks(data, checksums, range.getOffset());
+              return data;
+            });
+        sliceToUnderlying(range, verified);
+      }
+    }
+
+    private void verifyChunks(ByteBuffer data, ByteBuffer checksums,
+        long offset) {
+      DataChecksum checksum = DataChecksum.newDataChecksum(
+          DataChecksum.Type.CRC32, bytesPerSum);
+      try {
+        checksum.verifyChunkedSums(data.duplicate(), checksums.duplicate(),
+            file.toString(), offset);
+      } catch (ChecksumException e) {
+        throw new CompletionException(e);
+      }
+    }
     
 
     @Override
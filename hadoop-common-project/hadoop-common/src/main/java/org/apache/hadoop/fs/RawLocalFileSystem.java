@@ -33,21 +33,28 @@ import java.io.OutputStream;
 import java.io.FileDescriptor;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.classification.InterfaceStability;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.impl.CombinedFileRange;
 import org.apache.hadoop.fs.impl.StoreImplementationUtils;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.fs.statistics.IOStatistics;
@@ -60,6 +67,9 @@ import org.apache.hadoop.util.Progressable;
 import org.apache.hadoop.util.Shell;
 import org.apache.hadoop.util.StringUtils;
 
+import static org.apache.hadoop.fs.VectoredReadUtils.mergeSortedRanges;
+import static org.apache.hadoop.fs.VectoredReadUtils.sliceToUnderlying;
+import static org.apache.hadoop.fs.VectoredReadUtils.validateAndSortRanges;
 import static org.apache.hadoop.fs.impl.PathCapabilitiesSupport.validatePathCapabilityArgs;
 import static org.apache.hadoop.fs.statistics.StreamStatisticNames.STREAM_READ_BYTES;
 import static org.apache.hadoop.fs.statistics.StreamStatisticNames.STREAM_READ_EXCEPTIONS;
@@ -125,7 +135,10 @@ public class RawLocalFileSystem extends FileSystem {
   class LocalFSFileInputStream extends FSInputStream implements
       HasFileDescriptor, IOStatisticsSource, StreamCapabilities {
     private FileInputStream fis;
+    private final File file;
     private long position;
+    /** Channel for the asynchronous reads of readVectored, opened lazily. */
+    private AsynchronousFileChannel asyncChannel = null;
 
     /**
      * Minimal set of counters.
@@ -143,7 +156,8 @@ public class RawLocalFileSystem extends FileSystem {
     private final AtomicLong bytesRead;
 
     public LocalFSFileInputStream(Path f) throws IOException {
-      fis = new FileInputStream(pathToFile(f));
+      file = pathToFile(f);
+      fis = new FileInputStream(file);
       bytesRead = ioStatistics.getCounterReference(
           STREAM_READ_BYTES);
     }
@@ -174,7 +188,14 @@ public class RawLocalFileSystem extends FileSystem {
     @Override
     public int available() throws IOException { return fis.available(); }
     @Override
-    public void close() throws IOException { fis.close(); }
+    public void close() throws IOException {
+      fis.close();
+      synchronized (this) {
+        if (asyncChannel != null) {
+          asyncChannel.close();
+        }
+      }
+    }
     @Override
     public boolean markSupported() { return false; }
     
@@ -246,6 +267,83 @@ public class RawLocalFileSystem extends FileSystem {
       return value;
     }
 
+    private synchronized AsynchronousFileChannel getAsyncChannel()
+        throws IOException {
+      if (asyncChannel == null) {
+        asyncChannel = AsynchronousFileChannel.open(file.toPath(),
+            StandardOpenOption.READ);
+      }
+      return asyncChannel;
+    }
+
+    /**
+     * Read the ranges in parallel with an asynchronous file channel, merging
+     * nearby ranges into single reads.
+     */
+    @Override
+    public void readVectored(List<? extends FileRange> ranges,
+        IntFunction<ByteBuffer> allocate) throws IOException {
+      List<? extends FileRange> sortedRanges = validateAndSortRanges(ranges);
+      List<CombinedFileRange> combinedRanges = mergeSortedRanges(sortedRanges,
+          1, minSeekForVectorReads(), maxReadSizeForVectorReads());
+      AsynchronousFileChannel channel = getAsyncChannel();
+      for (CombinedFileRange range : combinedRanges) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        sliceToUnderlying(range, result);
+        ByteBuffer buffer = allocate.apply(range.getLength());
+        buffer.limit(buffer.position() + range.getLength());
+        channel.read(buffer, range.getOffset(), range,
+            new AsyncReadHandler(channel, buffer, result));
+      }
+    }
+
+    /**
+     * Reads a combined range until its buffer is full, then completes its
+     * future.
+     */
+    private class AsyncReadHandler
+        implements CompletionHandler<Integer, CombinedFileRange> {
+      private final AsynchronousFileChannel channel;
+      private final ByteBuffer buffer;
+      private final int start;
+      private final CompletableFuture<ByteBuffer> result;
+
+      AsyncReadHandler(AsynchronousFileChannel channel, ByteBuffer buffer,
+          CompletableFuture<ByteBuffer> result) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.result = result;
+      }
+
+      @Override
+      public void completed(Integer nread, CombinedFileRange range) {
+        if (nread < 0) {
+          failed(new EOFException("End of file reached before reading "
+              + range + " of " + file), range);
+          return;
+        }
+        if (nread > 0) {
+          statistics.incrementBytesRead(nread);
+          bytesRead.addAndGet(nread);
+        }
+        int filled = buffer.position() - start;
+        if (filled < range.getLength()) {
+          channel.read(buffer, range.getOffset() + filled, range, this);
+          return;
+        }
+        buffer.limit(buffer.position());
+        buffer.position(start);
+        result.complete(buffer);
+      }
+
+      @Override
+      public void failed(Throwable exc, CombinedFileRange range) {
+        ioStatistics.incrementCounter(STREAM_READ_EXCEPTIONS);
+        result.completeExceptionally(exc);
+      }
+    }
+
     @Override
     public FileDescriptor getFileDescriptor() throws IOException {
       return fis.getFD();
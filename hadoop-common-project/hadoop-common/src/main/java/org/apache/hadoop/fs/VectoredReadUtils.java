@@ -0,0 +1,243 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.fs;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.classification.InterfaceStability;
+import org.apache.hadoop.fs.impl.CombinedFileRange;
+
+/**
+ * Utility class which implements helper methods used
+ * in vectored IO implementation.
+ */
+@InterfaceAudience.LimitedPrivate("Filesystems")
+@InterfaceStability.Unstable
+public final class VectoredReadUtils {
+
+  private VectoredReadUtils() {
+  }
+
+  /**
+   * Validate a single range.
+   * @param range file range.
+   * @throws EOFException any EOF Exception.
+   */
+  public static void validateRangeRequest(FileRange range)
+      throws EOFException {
+    Objects.requireNonNull(range, "range is null");
+    if (range.getLength() < 0) {
+      throw new IllegalArgumentException("length is negative in " + range);
+    }
+    if (range.getOffset() < 0) {
+      throw new EOFException("position is negative in range " + range);
+    }
+  }
+
+  /**
+   * Validate a list of ranges and sort them by offset.
+   * @param input input list of ranges.
+   * @return a new list of the ranges, sorted by offset.
+   * @throws EOFException a range starts at a negative offset.
+   * @throws IllegalArgumentException ranges are invalid or overlap.
+   */
+  public static List<? extends FileRange> validateAndSortRanges(
+      List<? extends FileRange> input) throws EOFException {
+    Objects.requireNonNull(input, "Null input list");
+    for (FileRange range : input) {
+      validateRangeRequest(range);
+    }
+    List<? extends FileRange> sorted = sortRanges(input);
+    for (int i = 1; i < sorted.size(); i++) {
+      FileRange prev = sorted.get(i - 1);
+      FileRange current = sorted.get(i);
+      if (prev.getOffset() + prev.getLength() > current.getOffset()) {
+        throw new IllegalArgumentException("Overlapping ranges " + prev
+            + " and " + current);
+      }
+    }
+    return sorted;
+  }
+
+  /**
+   * Sort the input ranges by offset.
+   * @param input input ranges.
+   * @return a new list of the ranges, sorted by offset.
+   */
+  public static List<? extends FileRange> sortRanges(
+      List<? extends FileRange> input) {
+    List<? extends FileRange> sorted = new ArrayList<>(input);
+    sorted.sort(Comparator.comparingLong(FileRange::getOffset));
+    return sorted;
+  }
+
+  /**
+   * The default implementation of
+   * {@link PositionedReadable#readVectored(List, IntFunction)}, which reads
+   * each range with a blocking positional read.
+   * @param stream the stream to read the data from
+   * @param ranges the byte ranges to read
+   * @param allocate the byte buffer allocation
+   */
+  public static void readVectored(PositionedReadable stream,
+      List<? extends FileRange> ranges, IntFunction<ByteBuffer> allocate) {
+    for (FileRange range : ranges) {
+      range.setData(readRangeFrom(stream, range, allocate));
+    }
+  }
+
+  /**
+   * Synchronously reads a range from the stream.
+   * @param stream the stream to read the data from
+   * @param range the range to read
+   * @param allocate the function to allocate ByteBuffers
+   * @return the CompletableFuture that contains the read data or an exception.
+   */
+  public static CompletableFuture<ByteBuffer> readRangeFrom(
+      PositionedReadable stream, FileRange range,
+      IntFunction<ByteBuffer> allocate) {
+    CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+    try {
+      ByteBuffer buffer = allocate.apply(range.getLength());
+      if (buffer.hasArray()) {
+        stream.readFully(range.getOffset(), buffer.array(),
+            buffer.arrayOffset() + buffer.position(), range.getLength());
+        buffer.limit(buffer.position() + range.getLength());
+      } else {
+        byte[] tmp = new byte[range.getLength()];
+        stream.readFully(range.getOffset(), tmp, 0, tmp.length);
+        buffer.put(tmp);
+        buffer.flip();
+      }
+      result.complete(buffer);
+    } catch (IOException ioe) {
+      result.completeExceptionally(ioe);
+    }
+    return result;
+  }
+
+  /**
+   * Merge sorted ranges to optimize the access from the underlying file
+   * system.
+   * The motivations are that:
+   * <ul>
+   *   <li>Upper layers want to pass down logical file ranges.</li>
+   *   <li>Fewer reads have better performance.</li>
+   *   <li>Applications want callbacks as ranges are read.</li>
+   *   <li>Some file systems want to round ranges to be at checksum
+   *   boundaries.</li>
+   * </ul>
+   *
+   * @param sortedRanges already sorted list of ranges based on offset.
+   * @param chunkSize round the start and end points to multiples of
+   *                  chunkSize
+   * @param minimumSeek the smallest gap that we should seek over in bytes
+   * @param maxSize the largest combined file range in bytes
+   * @return the list of sorted CombinedFileRanges that cover the input
+   */
+  public static List<CombinedFileRange> mergeSortedRanges(
+      List<? extends FileRange> sortedRanges, int chunkSize, int minimumSeek,
+      int maxSize) {
+    CombinedFileRange current = null;
+    List<CombinedFileRange> result = new ArrayList<>(sortedRanges.size());
+
+    // now merge together the ones that merge
+    for (FileRange range : sortedRanges) {
+      long start = roundDown(range.getOffset(), chunkSize);
+      long end = roundUp(range.getOffset() + range.getLength(), chunkSize);
+      if (current == null || !current.merge(start, end, range, minimumSeek,
+          maxSize)) {
+        current = new CombinedFileRange(start, end, range);
+        result.add(current);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Slice the data that was read to the user's request.
+   * This function assumes that the user's request is completely subsumed by
+   * the read data. This always creates a new buffer pointing to the same
+   * underlying data but with its own mark and position fields such that
+   * reading one buffer can't effect other's mark and position.
+   * @param readData the buffer with the readData
+   * @param readOffset the offset in the file for the readData
+   * @param request the user's request
+   * @return the readData buffer that is sliced to the user's request
+   */
+  public static ByteBuffer sliceTo(ByteBuffer readData, long readOffset,
+      FileRange request) {
+    int offsetChange = (int) (request.getOffset() - readOffset);
+    int requestLength = request.getLength();
+    ByteBuffer slice = readData.duplicate();
+    slice.position(readData.position() + offsetChange);
+    slice.limit(slice.position() + requestLength);
+    return slice.slice();
+  }
+
+  /**
+   * Deliver the data of a combined range to each of its underlying ranges.
+   * @param combined the combined range
+   * @param data the future of the data read for the combined range
+   */
+  public static void sliceToUnderlying(CombinedFileRange combined,
+      CompletableFuture<ByteBuffer> data) {
+    for (FileRange child : combined.getUnderlying()) {
+      child.setData(data.thenApply(
+          buffer -> sliceTo(buffer, combined.getOffset(), child)));
+    }
+  }
+
+  /**
+   * Calculates the floor value of offset based on chunk size.
+   * @param offset file offset.
+   * @param chunkSize file chunk size.
+   * @return floor value.
+   */
+  public static long roundDown(long offset, int chunkSize) {
+    if (chunkSize > 1) {
+      return offset - (offset % chunkSize);
+    } else {
+      return offset;
+    }
+  }
+
+  /**
+   * Calculates the ceil value of offset based on chunk size.
+   * @param offset file offset.
+   * @param chunkSize file chunk size.
+   * @return ceil value.
+   */
+  public static long roundUp(long offset, int chunkSize) {
+    if (chunkSize > 1) {
+      long next = offset + chunkSize - 1;
+      return next - (next % chunkSize);
+    } else {
+      return offset;
+    }
+  }
+}
@@ -80,8 +80,9 @@ public final class RSUtil {
    * decoding because, in this implementation, encoding and decoding are
    * unified.
    *
-   * The algorithm is ported from Intel ISA-L library for compatible. It
-   * leverages Java auto-vectorization support for performance.
+   * The algorithm is ported from Intel ISA-L library for compatible. Each
+   * output is accumulated from the inputs one input at a time, with simple
+   * sequential loops that the JIT compiler unrolls.
    */
   public static void encodeData(byte[] gfTables, int dataLen, byte[][] inputs,
       int[] inputOffsets, byte[][] outputs,
@@ -91,8 +92,6 @@ public final class RSUtil {
     int l, i, j, iPos, oPos;
     byte[] input, output;
     byte s;
-    final int times = dataLen / 8;
-    final int extra = dataLen - dataLen % 8;
     byte[] tableLine;
 
     for (l = 0; l < numOutputs; l++) {
@@ -106,26 +105,8 @@ public final class RSUtil {
         s = gfTables[j * 32 + l * numInputs * 32 + 1];
         tableLine = GF256.gfMulTab()[s & 0xff];
 
-        /**
-         * Purely for performance, assuming we can use 8 bytes in the SIMD
-         * instruction. Subject to be improved.
-         */
-        for (i = 0; i < times; i++, iPos += 8, oPos += 8) {
-          output[oPos + 0] ^= tableLine[0xff & input[iPos + 0]];
-          output[oPos + 1] ^= tableLine[0xff & input[iPos + 1]];
-          output[oPos + 2] ^= tableLine[0xff & input[iPos + 2]];
-          output[oPos + 3] ^= tableLine[0xff & input[iPos + 3]];
-          output[oPos + 4] ^= tableLine[0xff & input[iPos + 4]];
-          output[oPos + 5] ^= tableLine[0xff & input[iPos + 5]];
-          output[oPos + 6] ^= tableLine[0xff & input[iPos + 6]];
-          output[oPos + 7] ^= tableLine[0xff & input[iPos + 7]];
-        }
-
-        /**
-         * For the left bytes, do it one by one.
-         */
-        for (i = extra; i < dataLen; i++, iPos++, oPos++) {
-          output[oPos] ^= tableLine[0xff & input[iPos]];
+        for (i = 0; i < dataLen; i++) {
+          output[oPos + i] ^= tableLine[0xff & input[iPos + i]];
         }
       }
     }
@@ -133,55 +114,80 @@ public final class RSUtil {
 
   /**
    * See above. Try to use the byte[] version when possible.
+   *
+   * Absolute single byte accesses to direct buffers are expensive, so the
+   * data is processed eight bytes at a time: each input word is read once
+   * with a long access, and each output word is accumulated from all the
+   * inputs before it is written back once.
    */
   public static void encodeData(byte[] gfTables, ByteBuffer[] inputs,
       ByteBuffer[] outputs) {
     int numInputs = inputs.length;
     int numOutputs = outputs.length;
     int dataLen = inputs[0].remaining();
-    int l, i, j, iPos, oPos;
-    ByteBuffer input, output;
-    byte s;
-    final int times = dataLen / 8;
+    int l, i, j;
     final int extra = dataLen - dataLen % 8;
-    byte[] tableLine;
 
+    // Duplicates all use the same (big endian) byte order.
+    ByteBuffer[] ins = new ByteBuffer[numInputs];
+    int[] iPos = new int[numInputs];
+    for (j = 0; j < numInputs; j++) {
+      ins[j] = inputs[j].duplicate();
+      iPos[j] = inputs[j].position();
+    }
+    ByteBuffer[] outs = new ByteBuffer[numOutputs];
+    int[] oPos = new int[numOutputs];
+    for (l = 0; l < numOutputs; l++) {
+      outs[l] = outputs[l].duplicate();
+      oPos[l] = outputs[l].position();
+    }
+    byte[][] tableLines = new byte[numOutputs * numInputs][];
     for (l = 0; l < numOutputs; l++) {
-      output = outputs[l];
-
       for (j = 0; j < numInputs; j++) {
-        input = inputs[j];
-        iPos = input.position();
-        oPos = output.position();
-
-        s = gfTables[j * 32 + l * numInputs * 32 + 1];
-        tableLine = GF256.gfMulTab()[s & 0xff];
+        byte s = gfTables[j * 32 + l * numInputs * 32 + 1];
+        tableLines[l * numInputs + j] = GF256.gfMulTab()[s & 0xff];
+      }
+    }
 
-        for (i = 0; i < times; i++, iPos += 8, oPos += 8) {
-          output.put(oPos + 0, (byte) (output.get(oPos + 0) ^
-              tableLine[0xff & input.get(iPos + 0)]));
-          output.put(oPos + 1, (byte) (output.get(oPos + 1) ^
-              tableLine[0xff & input.get(iPos + 1)]));
-          output.put(oPos + 2, (byte) (output.get(oPos + 2) ^
-              tableLine[0xff & input.get(iPos + 2)]));
-          output.put(oPos + 3, (byte) (output.get(oPos + 3) ^
-              tableLine[0xff & input.get(iPos + 3)]));
-          output.put(oPos + 4, (byte) (output.get(oPos + 4) ^
-              tableLine[0xff & input.get(iPos + 4)]));
-          output.put(oPos + 5, (byte) (output.get(oPos + 5) ^
-              tableLine[0xff & input.get(iPos + 5)]));
-          output.put(oPos + 6, (byte) (output.get(oPos + 6) ^
-              tableLine[0xff & input.get(iPos + 6)]));
-          output.put(oPos + 7, (byte) (output.get(oPos + 7) ^
-              tableLine[0xff & input.get(iPos + 7)]));
+    long[] words = new long[numInputs];
+    for (i = 0; i < extra; i += 8) {
+      for (j = 0; j < numInputs; j++) {
+        words[j] = ins[j].getLong(iPos[j] + i);
+      }
+      for (l = 0; l < numOutputs; l++) {
+        long sum = outs[l].getLong(oPos[l] + i);
+        for (j = 0; j < numInputs; j++) {
+          sum ^= gfMulWord(tableLines[l * numInputs + j], words[j]);
         }
+        outs[l].putLong(oPos[l] + i, sum);
+      }
+    }
 
-        for (i = extra; i < dataLen; i++, iPos++, oPos++) {
-          output.put(oPos, (byte) (output.get(oPos) ^
-              tableLine[0xff & input.get(iPos)]));
+    // For the left bytes, do it one by one.
+    for (l = 0; l < numOutputs; l++) {
+      for (j = 0; j < numInputs; j++) {
+        byte[] tableLine = tableLines[l * numInputs + j];
+        for (i = extra; i < dataLen; i++) {
+          outs[l].put(oPos[l] + i, (byte) (outs[l].get(oPos[l] + i) ^
+              tableLine[0xff & ins[j].get(iPos[j] + i)]));
         }
       }
     }
   }
 
+  /**
+   * Multiply each of the eight bytes of a word by the coefficient whose
+   * multiplication table is given.
+   */
+  private static long gfMulWord(byte[] tableLine, long word) {
+    return (tableLine[(int) (word >>> 56)] & 0xffL) << 56
+        | (tableLine[(int) (word >>> 48) & 0xff] & 0xffL) << 48
+        | (tableLine[(int) (word >>> 40) & 0xff] & 0xffL) << 40
+        | (tableLine[(int) (word >>> 32) & 0xff] & 0xffL) << 32
+        | (tableLine[(int) (word >>> 24) & 0xff] & 0xffL) << 24
+        | (tableLine[(int) (word >>> 16) & 0xff] & 0xffL) << 16
+        | (tableLine[(int) (word >>> 8) & 0xff] & 0xffL) << 8
+        | (tableLine[(int) word & 0xff] & 0xffL);
+  }
+
 }
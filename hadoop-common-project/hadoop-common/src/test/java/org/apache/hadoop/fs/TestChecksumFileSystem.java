@@ -18,7 +18,9 @@
 
 package org.apache.hadoop.fs;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -26,6 +28,8 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import static org.apache.hadoop.fs.FileSystemTestHelper.*;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.test.GenericTestUtils;
+import org.apache.hadoop.test.LambdaTestUtils;
+import org.apache.hadoop.util.functional.FutureIO;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -118,6 +122,53 @@ public class TestChecksumFileSystem {
     readFile(localFs, testPath, 1025);
   }
 
+  @Test
+  public void testVectoredRead() throws Exception {
+    Path testPath = new Path(TEST_ROOT_DIR, "testVectoredRead");
+    byte[] data = new byte[10000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i % 251);
+    }
+    FSDataOutputStream fout = localFs.create(testPath);
+    fout.write(data);
+    fout.close();
+
+    for (FileSystem fs : new FileSystem[] {localFs,
+        localFs.getRawFileSystem()}) {
+      List<FileRange> ranges = createRanges();
+      try (FSDataInputStream in = fs.open(testPath)) {
+        in.readVectored(ranges, ByteBuffer::allocate);
+        for (FileRange range : ranges) {
+          ByteBuffer buffer = FutureIO.awaitFuture(range.getData());
+          assertEquals(range.getLength(), buffer.remaining());
+          for (int i = 0; i < range.getLength(); i++) {
+            assertEquals("byte " + i + " of " + range,
+                data[(int) range.getOffset() + i], buffer.get());
+          }
+        }
+      }
+    }
+
+    // Rewrite the data without updating its checksums.
+    fout = localFs.getRawFileSystem().create(testPath, true);
+    fout.write(new byte[data.length]);
+    fout.close();
+    List<FileRange> ranges = createRanges();
+    try (FSDataInputStream in = localFs.open(testPath)) {
+      in.readVectored(ranges, ByteBuffer::allocate);
+      LambdaTestUtils.intercept(ChecksumException.class,
+          () -> FutureIO.awaitFuture(ranges.get(0).getData()));
+    }
+  }
+
+  private static List<FileRange> createRanges() {
+    return Arrays.asList(
+        FileRange.createFileRange(5000, 1000),
+        FileRange.createFileRange(0, 100),
+        FileRange.createFileRange(200, 300),
+        FileRange.createFileRange(9990, 10));
+  }
+
   /**
    * Test to ensure that if the checksum file is truncated, a
    * ChecksumException is thrown
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.fs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.fs.impl.CombinedFileRange;
+import org.apache.hadoop.test.LambdaTestUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link VectoredReadUtils}.
+ */
+public class TestVectoredReadUtils {
+
+  @Test
+  public void testMergeSortedRanges() {
+    List<FileRange> ranges = Arrays.asList(
+        FileRange.createFileRange(100, 100),
+        FileRange.createFileRange(250, 50),
+        FileRange.createFileRange(1000, 100),
+        FileRange.createFileRange(1100, 10));
+    List<CombinedFileRange> merged =
+        VectoredReadUtils.mergeSortedRanges(ranges, 1, 100, 1024);
+    assertEquals(2, merged.size());
+    assertEquals(100, merged.get(0).getOffset());
+    assertEquals(200, merged.get(0).getLength());
+    assertEquals(2, merged.get(0).getUnderlying().size());
+    assertEquals(1000, merged.get(1).getOffset());
+    assertEquals(110, merged.get(1).getLength());
+
+    // Ranges are not merged beyond the maximum size.
+    merged = VectoredReadUtils.mergeSortedRanges(ranges, 1, 100, 150);
+    assertEquals(3, merged.size());
+
+    // Ranges are rounded to chunks.
+    merged = VectoredReadUtils.mergeSortedRanges(ranges, 512, 0, 1024);
+    assertEquals(2, merged.size());
+    assertEquals(0, merged.get(0).getOffset());
+    assertEquals(512, merged.get(0).getLength());
+    assertEquals(512, merged.get(1).getOffset());
+    assertEquals(1024, merged.get(1).getLength());
+  }
+
+  @Test
+  public void testSliceTo() {
+    ByteBuffer buffer = ByteBuffer.allocate(100);
+    for (int i = 0; i < 100; i++) {
+      buffer.put((byte) i);
+    }
+    buffer.flip();
+    ByteBuffer slice = VectoredReadUtils.sliceTo(buffer, 1000,
+        FileRange.createFileRange(1010, 20));
+    assertEquals(20, slice.remaining());
+    assertEquals(10, slice.get());
+    // The read data is left untouched.
+    assertEquals(0, buffer.position());
+    assertEquals(100, buffer.limit());
+  }
+
+  @Test
+  public void testValidateAndSortRanges() throws Exception {
+    List<? extends FileRange> sorted = VectoredReadUtils.validateAndSortRanges(
+        Arrays.asList(FileRange.createFileRange(100, 10),
+            FileRange.createFileRange(0, 10)));
+    assertEquals(0, sorted.get(0).getOffset());
+    assertEquals(100, sorted.get(1).getOffset());
+
+    LambdaTestUtils.intercept(IllegalArgumentException.class,
+        () -> VectoredReadUtils.validateAndSortRanges(Arrays.asList(
+            FileRange.createFileRange(0, 10),
+            FileRange.createFileRange(5, 10))));
+    LambdaTestUtils.intercept(EOFException.class,
+        () -> VectoredReadUtils.validateAndSortRanges(Arrays.asList(
+            FileRange.createFileRange(-1, 10))));
+  }
+}
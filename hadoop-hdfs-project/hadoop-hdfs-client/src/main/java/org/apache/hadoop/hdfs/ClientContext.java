@@ -31,6 +31,7 @@ import org.apache.hadoop.fs.CommonConfigurationKeys;
 import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
 import org.apache.hadoop.hdfs.client.impl.DfsClientConf;
 import org.apache.hadoop.hdfs.client.impl.DfsClientConf.ShortCircuitConf;
+import org.apache.hadoop.hdfs.client.impl.metrics.ClientContextMetrics;
 import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
 import org.apache.hadoop.hdfs.shortcircuit.DomainSocketFactory;
 import org.apache.hadoop.hdfs.shortcircuit.ShortCircuitCache;
@@ -215,6 +216,7 @@ public class ClientContext {
       if (context == null) {
         context = new ClientContext(name, conf, config);
         CACHES.put(name, context);
+        ClientContextMetrics.create(context);
       } else {
         context.printConfWarningIfNeeded(conf);
       }
@@ -252,6 +254,11 @@ public class ClientContext {
     }
   }
 
+  /** @return the name of this context. */
+  public String getName() {
+    return name;
+  }
+
   public String getConfString() {
     return confString;
   }
@@ -264,6 +271,11 @@ public class ClientContext {
     return shortCircuitCache[(int) (idx % clientShortCircuitNum)];
   }
 
+  /** @return the number of short-circuit caches of this context. */
+  public int getClientShortCircuitNum() {
+    return clientShortCircuitNum;
+  }
+
   public PeerCache getPeerCache() {
     return peerCache;
   }
@@ -240,6 +240,7 @@ public class DFSClient implements java.io.Closeable, RemotePeerFactory,
   private final CachingStrategy defaultReadCachingStrategy;
   private final CachingStrategy defaultWriteCachingStrategy;
   private final ClientContext clientContext;
+  private final DataNodeReadLatencies readLatencies;
 
   private static final DFSHedgedReadMetrics HEDGED_READ_METRIC =
       new DFSHedgedReadMetrics();
@@ -406,6 +407,8 @@ public class DFSClient implements java.io.Closeable, RemotePeerFactory,
       this.initThreadsNumForHedgedReads(dfsClientConf.
           getHedgedReadThreadpoolSize());
     }
+    this.readLatencies = dfsClientConf.isHedgedReadLatencyAware() ?
+        new DataNodeReadLatencies() : null;
 
     this.initThreadsNumForStripedReads(dfsClientConf.
         getStripedReadThreadpoolSize());
@@ -3146,6 +3149,15 @@ public class DFSClient implements java.io.Closeable, RemotePeerFactory,
     return HEDGED_READ_METRIC;
   }
 
+  /**
+   * @return the read latencies of DataNodes, or null if reads do not adapt
+   *         to them.
+   */
+  @VisibleForTesting
+  public DataNodeReadLatencies getReadLatencies() {
+    return readLatencies;
+  }
+
   @Override
   public URI getKeyProviderUri() throws IOException {
     return HdfsKMSUtil.getKeyProviderUri(ugi, namenodeUri,
@@ -36,6 +36,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -44,6 +45,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.fs.ByteBufferPositionedReadable;
@@ -56,10 +58,12 @@ import org.apache.hadoop.fs.ChecksumException;
 import org.apache.hadoop.fs.FSExceptionMessages;
 import org.apache.hadoop.fs.FSInputStream;
 import org.apache.hadoop.fs.FileEncryptionInfo;
+import org.apache.hadoop.fs.FileRange;
 import org.apache.hadoop.fs.HasEnhancedByteBufferAccess;
 import org.apache.hadoop.fs.ReadOption;
 import org.apache.hadoop.fs.StorageType;
 import org.apache.hadoop.fs.StreamCapabilities;
+import org.apache.hadoop.fs.impl.CombinedFileRange;
 import org.apache.hadoop.hdfs.DFSUtilClient.CorruptedBlocks;
 import org.apache.hadoop.hdfs.client.impl.BlockReaderFactory;
 import org.apache.hadoop.hdfs.client.impl.DfsClientConf;
@@ -94,6 +98,9 @@ import org.apache.hadoop.classification.VisibleForTesting;
 
 import javax.annotation.Nonnull;
 
+import static org.apache.hadoop.fs.VectoredReadUtils.mergeSortedRanges;
+import static org.apache.hadoop.fs.VectoredReadUtils.sliceToUnderlying;
+import static org.apache.hadoop.fs.VectoredReadUtils.validateAndSortRanges;
 import static org.apache.hadoop.hdfs.util.IOUtilsClient.updateReadStatistics;
 
 /****************************************************************
@@ -1031,15 +1038,28 @@ public class DFSInputStream extends FSInputStream
     }
 
     if (chosenNode == null && nodes != null) {
+      // Prefer the first node in priority order, unless a later node is
+      // known to serve reads faster by a clear margin.
+      final DataNodeReadLatencies latencies = dfsClient.getReadLatencies();
+      int chosenIndex = -1;
       for (int i = 0; i < nodes.length; i++) {
         if (isValidNode(nodes[i], ignoredNodes)) {
-          chosenNode = nodes[i];
-          // Storage types are ordered to correspond with nodes, so use the same
-          // index to get storage type.
-          if (storageTypes != null && i < storageTypes.length) {
-            storageType = storageTypes[i];
+          if (chosenIndex < 0) {
+            chosenIndex = i;
+            if (latencies == null) {
+              break;
+            }
+          } else if (latencies.isFaster(nodes[i], nodes[chosenIndex])) {
+            chosenIndex = i;
           }
-          break;
+        }
+      }
+      if (chosenIndex >= 0) {
+        chosenNode = nodes[chosenIndex];
+        // Storage types are ordered to correspond with nodes, so use the same
+        // index to get storage type.
+        if (storageTypes != null && chosenIndex < storageTypes.length) {
+          storageType = storageTypes[chosenIndex];
         }
       }
     }
@@ -1155,6 +1175,7 @@ public class DFSInputStream extends FSInputStream
     LocatedBlock block = datanode.block;
     while (true) {
       BlockReader reader = null;
+      final long attemptStartNanos = Time.monotonicNowNanos();
       try {
         DFSClientFaultInjector.get().fetchFromDatanodeException();
         reader = getBlockReader(block, startInBlk, len, datanode.addr,
@@ -1186,6 +1207,10 @@ public class DFSInputStream extends FSInputStream
               "excpected " + len + ", got " + nread);
         }
         DFSClientFaultInjector.get().readFromDatanodeDelay();
+        if (dfsClient.getReadLatencies() != null) {
+          dfsClient.getReadLatencies().addSample(datanode.info,
+              Time.monotonicNowNanos() - attemptStartNanos, len);
+        }
         return;
       } catch (ChecksumException e) {
         String msg = "fetchBlockByteRange(). Got a checksum exception for "
@@ -1277,9 +1302,14 @@ public class DFSInputStream extends FSInputStream
             .submit(getFromDataNodeCallable);
         futures.add(firstRequest);
         Future<ByteBuffer> future = null;
+        long thresholdMillis = conf.getHedgedReadThresholdMillis();
+        if (dfsClient.getReadLatencies() != null) {
+          thresholdMillis = dfsClient.getReadLatencies()
+              .getHedgedReadThresholdMillis(chosenNode.info, len,
+                  thresholdMillis);
+        }
         try {
-          future = hedgedService.poll(
-              conf.getHedgedReadThresholdMillis(), TimeUnit.MILLISECONDS);
+          future = hedgedService.poll(thresholdMillis, TimeUnit.MILLISECONDS);
           if (future != null) {
             ByteBuffer result = future.get();
             result.flip();
@@ -1287,7 +1317,7 @@ public class DFSInputStream extends FSInputStream
             return;
           }
           DFSClient.LOG.debug("Waited {}ms to read from {}; spawning hedged "
-              + "read", conf.getHedgedReadThresholdMillis(), chosenNode.info);
+              + "read", thresholdMillis, chosenNode.info);
           dfsClient.getHedgedReadMetrics().incHedgedReadOps();
           // continue; no need to refresh block locations
         } catch (ExecutionException e) {
@@ -1694,6 +1724,67 @@ public class DFSInputStream extends FSInputStream
     }
   }
 
+  /**
+   * A DataNode read has a fixed cost of setting up a block reader, so it is
+   * cheaper to read over larger gaps than on local storage.
+   */
+  @Override
+  public int minSeekForVectorReads() {
+    return 64 * 1024;
+  }
+
+  /**
+   * Merge nearby ranges which lie in the same block, so that each merged
+   * range is read from a single replica with a single positional read.
+   */
+  @Override
+  public void readVectored(List<? extends FileRange> ranges,
+      IntFunction<ByteBuffer> allocate) throws IOException {
+    List<? extends FileRange> sortedRanges = validateAndSortRanges(ranges);
+    final long fileLength = getFileLength();
+    List<CombinedFileRange> combinedRanges = new ArrayList<>();
+    List<FileRange> blockRanges = new ArrayList<>();
+    long blockEnd = -1;
+    for (FileRange range : sortedRanges) {
+      long end = range.getOffset() + range.getLength();
+      if (end > fileLength) {
+        throw new EOFException("Range " + range + " extends beyond the end "
+            + "of " + src + " of length " + fileLength);
+      }
+      if (range.getLength() == 0) {
+        range.setData(CompletableFuture.completedFuture(allocate.apply(0)));
+        continue;
+      }
+      if (!blockRanges.isEmpty() && end > blockEnd) {
+        combinedRanges.addAll(mergeSortedRanges(blockRanges, 1,
+            minSeekForVectorReads(), maxReadSizeForVectorReads()));
+        blockRanges.clear();
+      }
+      if (blockRanges.isEmpty()) {
+        LocatedBlock block = getBlockAt(range.getOffset());
+        blockEnd = block.getStartOffset() + block.getBlockSize();
+      }
+      blockRanges.add(range);
+    }
+    combinedRanges.addAll(mergeSortedRanges(blockRanges, 1,
+        minSeekForVectorReads(), maxReadSizeForVectorReads()));
+
+    for (CombinedFileRange range : combinedRanges) {
+      CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+      sliceToUnderlying(range, result);
+      try {
+        ByteBuffer buffer = allocate.apply(range.getLength());
+        int start = buffer.position();
+        buffer.limit(start + range.getLength());
+        readFully(range.getOffset(), buffer);
+        buffer.position(start);
+        result.complete(buffer);
+      } catch (IOException e) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
   /** Utility class to encapsulate data node info and its address. */
   static final class DNAddrPair {
     final DatanodeInfo info;
@@ -53,6 +53,7 @@ import java.util.Set;
 import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.hadoop.hdfs.util.IOUtilsClient.updateReadStatistics;
 
@@ -92,6 +93,9 @@ public class DFSStripedInputStream extends DFSInputStream {
   private final Set<String> warnedNodes =
       Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+  /** Number of block readers closed because their DataNode was slow. */
+  private final AtomicLong slowReadersSkipped = new AtomicLong();
+
   DFSStripedInputStream(DFSClient dfsClient, String src,
       boolean verifyChecksum, ErasureCodingPolicy ecPolicy,
       LocatedBlocks locatedBlocks) throws IOException {
@@ -145,6 +149,15 @@ public class DFSStripedInputStream extends DFSInputStream {
     return BUFFER_POOL;
   }
 
+  void incrSlowReadersSkipped() {
+    slowReadersSkipped.incrementAndGet();
+  }
+
+  @VisibleForTesting
+  long getSlowReadersSkipped() {
+    return slowReadersSkipped.get();
+  }
+
   protected ThreadPoolExecutor getStripedReadsThreadPool(){
     return dfsClient.getStripedReadsThreadPool();
   }
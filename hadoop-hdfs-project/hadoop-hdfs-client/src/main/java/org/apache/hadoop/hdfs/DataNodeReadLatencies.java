@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hdfs;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.classification.VisibleForTesting;
+import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
+import org.apache.hadoop.util.Timer;
+
+/**
+ * Smoothed read latencies of the DataNodes a client reads from.
+ * <p>
+ * Each DataNode keeps an exponentially weighted moving average of its read
+ * latency per byte and of the mean deviation from it, the same way TCP
+ * estimates round trip times. Their sum with a multiple of the deviation
+ * approximates a high percentile of the latency, which is used as the hedged
+ * read threshold, and the averages are used to prefer replicas on faster
+ * DataNodes. Reads smaller than {@link #MIN_SAMPLE_BYTES} are dominated by
+ * the per-request overhead and are accounted as reads of that size.
+ * <p>
+ * Estimates which were not updated for {@link #STALE_MILLIS} are ignored, so
+ * that reads go back to the DataNodes in priority order and measure them
+ * again.
+ */
+@InterfaceAudience.Private
+public class DataNodeReadLatencies {
+  /** Weight of a new sample in the smoothed latency. */
+  private static final double ALPHA = 0.125;
+  /** Weight of a new sample in the smoothed deviation. */
+  private static final double BETA = 0.25;
+  /** Deviations above the average at which to hedge a read. */
+  private static final int DEVIATIONS = 4;
+  /**
+   * Fraction of the latency of a DataNode another one must stay under to be
+   * preferred over it, so that noise does not move reads off the first
+   * DataNode in priority order.
+   */
+  private static final double FASTER_MARGIN = 0.75;
+  /** The size below which reads count as reads of this size. */
+  @VisibleForTesting
+  static final long MIN_SAMPLE_BYTES = 64 * 1024;
+  /** Age after which an estimate is no longer used. */
+  @VisibleForTesting
+  static final long STALE_MILLIS = 60 * 1000;
+  /** The lowest hedged read threshold derived from the estimates. */
+  @VisibleForTesting
+  static final long MIN_THRESHOLD_MILLIS = 10;
+
+  private static class Estimate {
+    private double nanosPerByte;
+    private double deviationNanosPerByte;
+    private long lastUpdateMs;
+
+    Estimate(double sample, long nowMs) {
+      nanosPerByte = sample;
+      deviationNanosPerByte = sample / 2;
+      lastUpdateMs = nowMs;
+    }
+
+    synchronized void add(double sample, long nowMs) {
+      if (nowMs - lastUpdateMs > STALE_MILLIS) {
+        // start over rather than smoothing with an outdated estimate
+        nanosPerByte = sample;
+        deviationNanosPerByte = sample / 2;
+      } else {
+        deviationNanosPerByte +=
+            BETA * (Math.abs(sample - nanosPerByte) - deviationNanosPerByte);
+        nanosPerByte += ALPHA * (sample - nanosPerByte);
+      }
+      lastUpdateMs = nowMs;
+    }
+
+    synchronized boolean isStale(long nowMs) {
+      return nowMs - lastUpdateMs > STALE_MILLIS;
+    }
+
+    synchronized double getNanosPerByte() {
+      return nanosPerByte;
+    }
+
+    synchronized double getThresholdNanosPerByte() {
+      return nanosPerByte + DEVIATIONS * deviationNanosPerByte;
+    }
+  }
+
+  private final ConcurrentHashMap<String, Estimate> estimates =
+      new ConcurrentHashMap<>();
+  private final Timer timer;
+
+  public DataNodeReadLatencies() {
+    this(new Timer());
+  }
+
+  @VisibleForTesting
+  DataNodeReadLatencies(Timer timer) {
+    this.timer = timer;
+  }
+
+  private static long sampleBytes(long bytes) {
+    return Math.max(bytes, MIN_SAMPLE_BYTES);
+  }
+
+  /**
+   * Record how long one attempt to read from the DataNode took.
+   * @param node the DataNode read from.
+   * @param latencyNanos the duration of the attempt.
+   * @param bytes the number of bytes read.
+   */
+  public void addSample(DatanodeInfo node, long latencyNanos, long bytes) {
+    final double sample = (double) latencyNanos / sampleBytes(bytes);
+    final long nowMs = timer.monotonicNow();
+    Estimate estimate = estimates.putIfAbsent(node.getXferAddr(),
+        new Estimate(sample, nowMs));
+    if (estimate != null) {
+      estimate.add(sample, nowMs);
+    }
+  }
+
+  private Estimate getFreshEstimate(DatanodeInfo node) {
+    Estimate estimate = estimates.get(node.getXferAddr());
+    return estimate == null || estimate.isStale(timer.monotonicNow()) ?
+        null : estimate;
+  }
+
+  /**
+   * @return the smoothed read latency of the DataNode in nanoseconds per
+   *         byte, or a negative value if there is no recent estimate for it.
+   */
+  public double getNanosPerByte(DatanodeInfo node) {
+    Estimate estimate = getFreshEstimate(node);
+    return estimate == null ? -1 : estimate.getNanosPerByte();
+  }
+
+  /**
+   * @return whether reads from the first DataNode are known to be faster
+   *         than reads from the second one by a clear margin.
+   */
+  public boolean isFaster(DatanodeInfo node, DatanodeInfo other) {
+    double latency = getNanosPerByte(node);
+    double otherLatency = getNanosPerByte(other);
+    return latency >= 0 && otherLatency >= 0
+        && latency < FASTER_MARGIN * otherLatency;
+  }
+
+  /**
+   * @return how long to wait for a read of the given size from the DataNode
+   *         before hedging it, at least {@link #MIN_THRESHOLD_MILLIS} and at
+   *         most the given configured threshold.
+   */
+  public long getHedgedReadThresholdMillis(DatanodeInfo node, long bytes,
+      long maxThresholdMillis) {
+    Estimate estimate = getFreshEstimate(node);
+    if (estimate == null) {
+      return maxThresholdMillis;
+    }
+    long thresholdMs = (long) Math.ceil(estimate.getThresholdNanosPerByte()
+        * sampleBytes(bytes) / 1000000);
+    return Math.min(maxThresholdMillis,
+        Math.max(MIN_THRESHOLD_MILLIS, thresholdMs));
+  }
+}
@@ -281,6 +281,7 @@ abstract class StripeReader {
             skipped == targetReaderOffset - currentReaderOffset);
       }
 
+      DFSClientFaultInjector.get().readFromStripedDatanodeDelay(datanode);
       int ret = 0;
       for (ByteBufferStrategy strategy : strategies) {
         int bytesReead = readToBuffer(reader, datanode, strategy, currentBlock);
@@ -346,6 +347,9 @@ abstract class StripeReader {
     }
     // TODO: for a full stripe we can start reading (dataBlkNum + 1) chunks
 
+    // Completion time of the first chunk of this stripe, used to detect data
+    // sources that lag behind the others.
+    long firstCompletionTime = -1;
     // Input buffers for potential decode operation, which remains null until
     // first read failure
     while (!futures.isEmpty()) {
@@ -363,6 +367,12 @@ abstract class StripeReader {
           returnedChunk.state = StripingChunk.FETCHED;
           alignedStripe.fetchedChunksNum++;
           updateState4SuccessRead(r);
+          final long now = Time.monotonicNow();
+          if (firstCompletionTime < 0) {
+            firstCompletionTime = now;
+          } else {
+            checkSlowReader(r.index, now - firstCompletionTime);
+          }
           if (alignedStripe.fetchedChunksNum == dataBlkNum) {
             clearFutures();
             break;
@@ -393,6 +403,34 @@ abstract class StripeReader {
     }
   }
 
+  /**
+   * Stop reading from a data block whose chunk arrived long after the first
+   * chunk of the same stripe. The reader is closed, so the following stripes
+   * treat the block as missing and read parity blocks for decoding instead.
+   * At least one parity block is always left as spare for real failures.
+   */
+  private void checkSlowReader(int index, long lagMs) {
+    final long threshold = dfsStripedInputStream.getDFSClient().getConf()
+        .getStripedReadSlowThresholdMillis();
+    if (threshold <= 0 || lagMs <= threshold || index >= dataBlkNum) {
+      return;
+    }
+    int skipped = 0;
+    for (BlockReaderInfo info : readerInfos) {
+      if (info != null && info.shouldSkip) {
+        skipped++;
+      }
+    }
+    if (skipped + 1 >= parityBlkNum) {
+      return;
+    }
+    DFSClient.LOG.info("Switching to parity blocks for " + alignedStripe
+        + " of " + dfsStripedInputStream.getSrc() + ": read from "
+        + readerInfos[index].datanode + " lagged " + lagMs + " ms");
+    dfsStripedInputStream.closeReader(readerInfos[index]);
+    dfsStripedInputStream.incrSlowReadersSkipped();
+  }
+
   /**
    * Some fetched {@link StripingChunk} might be stored in original application
    * buffer instead of prepared decode input buffers. Some others are beyond
@@ -495,6 +495,8 @@ public interface HdfsClientConfigKeys {
     long    THRESHOLD_MILLIS_DEFAULT = 500;
     String  THREADPOOL_SIZE_KEY = PREFIX + "threadpool.size";
     int     THREADPOOL_SIZE_DEFAULT = 0;
+    String  LATENCY_AWARE_KEY = PREFIX + "latency-aware.enabled";
+    boolean LATENCY_AWARE_DEFAULT = false;
   }
 
   /** dfs.client.read.striped configuration properties */
@@ -507,6 +509,13 @@ public interface HdfsClientConfigKeys {
      * span 6 DNs, so this default value accommodates 3 read streams
      */
     int     THREADPOOL_SIZE_DEFAULT = 18;
+    /**
+     * A data block read that completes this much later than the first read
+     * of the same stripe is replaced by parity reads for the rest of the
+     * block group. 0 disables the switch.
+     */
+    String  SLOW_THRESHOLD_MILLIS_KEY = PREFIX + "slow.threshold.millis";
+    long    SLOW_THRESHOLD_MILLIS_DEFAULT = 0;
   }
 
   /** dfs.http.client configuration properties */
@@ -155,10 +155,12 @@ public class DfsClientConf {
 
   private final long hedgedReadThresholdMillis;
   private final int hedgedReadThreadpoolSize;
+  private final boolean hedgedReadLatencyAware;
   private final List<Class<? extends ReplicaAccessorBuilder>>
       replicaAccessorBuilderClasses;
 
   private final int stripedReadThreadpoolSize;
+  private final long stripedReadSlowThresholdMillis;
 
   private final boolean dataTransferTcpNoDelay;
 
@@ -284,6 +286,9 @@ public class DfsClientConf {
     hedgedReadThreadpoolSize = conf.getInt(
         HdfsClientConfigKeys.HedgedRead.THREADPOOL_SIZE_KEY,
         HdfsClientConfigKeys.HedgedRead.THREADPOOL_SIZE_DEFAULT);
+    hedgedReadLatencyAware = conf.getBoolean(
+        HedgedRead.LATENCY_AWARE_KEY,
+        HedgedRead.LATENCY_AWARE_DEFAULT);
 
     deadNodeDetectionEnabled =
         conf.getBoolean(DFS_CLIENT_DEAD_NODE_DETECTION_ENABLED_KEY,
@@ -295,6 +300,9 @@ public class DfsClientConf {
     Preconditions.checkArgument(stripedReadThreadpoolSize > 0, "The value of " +
         HdfsClientConfigKeys.StripedRead.THREADPOOL_SIZE_KEY +
         " must be greater than 0.");
+    stripedReadSlowThresholdMillis = conf.getLong(
+        HdfsClientConfigKeys.StripedRead.SLOW_THRESHOLD_MILLIS_KEY,
+        HdfsClientConfigKeys.StripedRead.SLOW_THRESHOLD_MILLIS_DEFAULT);
     replicaAccessorBuilderClasses = loadReplicaAccessorBuilderClasses(conf);
 
     leaseHardLimitPeriod =
@@ -683,6 +691,13 @@ public class DfsClientConf {
     return hedgedReadThreadpoolSize;
   }
 
+  /**
+   * @return the hedgedReadLatencyAware
+   */
+  public boolean isHedgedReadLatencyAware() {
+    return hedgedReadLatencyAware;
+  }
+
   /**
    * @return the stripedReadThreadpoolSize
    */
@@ -690,6 +705,13 @@ public class DfsClientConf {
     return stripedReadThreadpoolSize;
   }
 
+  /**
+   * @return the stripedReadSlowThresholdMillis
+   */
+  public long getStripedReadSlowThresholdMillis() {
+    return stripedReadSlowThresholdMillis;
+  }
+
   /**
    * @return the deadNodeDetectionEnabled
    */
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hdfs.client.impl.metrics;
+
+import org.apache.hadoop.classification.InterfaceAudience;
+import org.apache.hadoop.hdfs.ClientContext;
+import org.apache.hadoop.hdfs.shortcircuit.ShortCircuitCache;
+import org.apache.hadoop.hdfs.util.ByteArrayManager;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsException;
+import org.apache.hadoop.metrics2.MetricsInfo;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.Interns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class exposes the statistics of the buffers and caches which are
+ * shared by all the DFSClients of a {@link ClientContext}.
+ */
+@InterfaceAudience.Private
+public class ClientContextMetrics implements MetricsSource {
+  private static final Logger LOG =
+      LoggerFactory.getLogger(ClientContextMetrics.class);
+
+  private static final String CLIENT_CONTEXT_METRIC_REGISTERED_NAME =
+      "HdfsClientContext";
+
+  private static final MetricsInfo RECORD_INFO = Interns.info(
+      CLIENT_CONTEXT_METRIC_REGISTERED_NAME,
+      "Statistics of the buffers and caches of an HDFS client context");
+  private static final MetricsInfo CONTEXT_INFO = Interns.info(
+      "ClientContext", "The name of the client context");
+  private static final MetricsInfo WRITE_BUFFER_ALLOCATED_BYTES_INFO =
+      Interns.info("WriteBufferAllocatedBytes",
+          "Total bytes of the packet buffers handed out to writers");
+  private static final MetricsInfo WRITE_BUFFER_RECYCLED_BYTES_INFO =
+      Interns.info("WriteBufferRecycledBytes",
+          "Total bytes of the packet buffers served from recycled arrays");
+  private static final MetricsInfo WRITE_BUFFER_NEWLY_ALLOCATED_BYTES_INFO =
+      Interns.info("WriteBufferNewlyAllocatedBytes",
+          "Total bytes of the packet buffers newly created for writers");
+
+  private static final MetricsInfo SHORT_CIRCUIT_CACHE_HITS_INFO =
+      Interns.info("ShortCircuitCacheHits",
+          "Lookups served by a replica already in the short-circuit cache");
+  private static final MetricsInfo SHORT_CIRCUIT_CACHE_WAITS_INFO =
+      Interns.info("ShortCircuitCacheWaits",
+          "Lookups which waited for a replica another thread was loading");
+  private static final MetricsInfo SHORT_CIRCUIT_CACHE_MISSES_INFO =
+      Interns.info("ShortCircuitCacheMisses",
+          "Lookups which loaded a replica from the DataNode");
+  private static final MetricsInfo SHORT_CIRCUIT_CACHE_LOAD_NANOS_INFO =
+      Interns.info("ShortCircuitCacheLoadNanos",
+          "Total time spent loading replicas from the DataNode");
+  private static final MetricsInfo SHORT_CIRCUIT_CACHE_EVICTIONS_INFO =
+      Interns.info("ShortCircuitCacheEvictions",
+          "Replicas evicted from the short-circuit cache");
+
+  private final ClientContext context;
+
+  private ClientContextMetrics(ClientContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Register the metrics of a client context with the default metrics
+   * system. Failing to do so is logged and does not affect the client.
+   */
+  public static ClientContextMetrics create(ClientContext context) {
+    ClientContextMetrics metrics = new ClientContextMetrics(context);
+    try {
+      DefaultMetricsSystem.instance().register(
+          CLIENT_CONTEXT_METRIC_REGISTERED_NAME + "-" + context.getName(),
+          RECORD_INFO.description(), metrics);
+    } catch (MetricsException e) {
+      LOG.warn("Failed to register the metrics of client context {}",
+          context.getName(), e);
+    }
+    return metrics;
+  }
+
+  @Override
+  public void getMetrics(MetricsCollector collector, boolean all) {
+    MetricsRecordBuilder rb = collector.addRecord(RECORD_INFO)
+        .setContext("dfs")
+        .tag(CONTEXT_INFO, context.getName());
+    ByteArrayManager byteArrayManager = context.getByteArrayManager();
+    rb.addCounter(WRITE_BUFFER_ALLOCATED_BYTES_INFO,
+        byteArrayManager.getAllocatedBytes())
+        .addCounter(WRITE_BUFFER_RECYCLED_BYTES_INFO,
+            byteArrayManager.getRecycledBytes())
+        .addCounter(WRITE_BUFFER_NEWLY_ALLOCATED_BYTES_INFO,
+            byteArrayManager.getNewlyAllocatedBytes());
+
+    long hits = 0;
+    long waits = 0;
+    long misses = 0;
+    long loadNanos = 0;
+    long evictions = 0;
+    for (int i = 0; i < context.getClientShortCircuitNum(); i++) {
+      ShortCircuitCache cache = context.getShortCircuitCache(i);
+      hits += cache.getHitCount();
+      waits += cache.getWaitCount();
+      misses += cache.getMissCount();
+      loadNanos += cache.getTotalLoadTimeNs();
+      evictions += cache.getEvictionCount();
+    }
+    rb.addCounter(SHORT_CIRCUIT_CACHE_HITS_INFO, hits)
+        .addCounter(SHORT_CIRCUIT_CACHE_WAITS_INFO, waits)
+        .addCounter(SHORT_CIRCUIT_CACHE_MISSES_INFO, misses)
+        .addCounter(SHORT_CIRCUIT_CACHE_LOAD_NANOS_INFO, loadNanos)
+        .addCounter(SHORT_CIRCUIT_CACHE_EVICTIONS_INFO, evictions);
+  }
+}
@@ -123,6 +123,7 @@ public class ShortCircuitCache implements Closeable {
           }
           purge(replica);
           numPurged++;
+          evictionCount++;
         }
 
         LOG.debug("{}: finishing cache cleaner run started at {}. Demoted {} "
@@ -349,6 +350,33 @@ public class ShortCircuitCache implements Closeable {
    */
   private int outstandingMmapCount = 0;
 
+  /**
+   * Number of lookups served by a replica that was already in the cache.
+   */
+  private long hitCount = 0;
+
+  /**
+   * Number of lookups served by a replica which another thread was loading
+   * from the DataNode at the time of the lookup.
+   */
+  private long waitCount = 0;
+
+  /**
+   * Number of lookups which had to load a replica from the DataNode.
+   */
+  private long missCount = 0;
+
+  /**
+   * Total time spent loading replicas from the DataNode, in nanoseconds.
+   */
+  private long totalLoadTimeNs = 0;
+
+  /**
+   * Number of evictable replicas purged to stay under the cache size or
+   * because they were unused for too long.
+   */
+  private long evictionCount = 0;
+
   /**
    * Manages short-circuit shared memory segments for the client.
    */
@@ -569,6 +597,7 @@ public class ShortCircuitCache implements Closeable {
             StringUtils.getStackTrace(Thread.currentThread()));
       }
       purge(replica);
+      evictionCount++;
     }
   }
 
@@ -697,6 +726,7 @@ public class ShortCircuitCache implements Closeable {
     lock.lock();
     try {
       ShortCircuitReplicaInfo info = null;
+      boolean waited = false;
       for (int i = 0; i < FETCH_OR_CREATE_RETRY_TIMES; i++){
         if (closed) {
           LOG.trace("{}: can't fethchOrCreate {} because the cache is closed.",
@@ -705,15 +735,27 @@ public class ShortCircuitCache implements Closeable {
         }
         Waitable<ShortCircuitReplicaInfo> waitable = replicaInfoMap.get(key);
         if (waitable != null) {
+          // A replica still being loaded by another thread is not a hit.
+          final boolean loading = !waitable.hasVal();
           try {
             info = fetch(key, waitable);
+            waited = loading;
             break;
           } catch (RetriableException e) {
             LOG.debug("{}: retrying {}", this, e.getMessage());
           }
         }
       }
-      if (info != null) return info;
+      if (info != null) {
+        if (info.getReplica() != null) {
+          if (waited) {
+            waitCount++;
+          } else {
+            hitCount++;
+          }
+        }
+        return info;
+      }
       // We need to load the replica ourselves.
       newWaitable = new Waitable<>(lock.newCondition());
       replicaInfoMap.put(key, newWaitable);
@@ -781,15 +823,19 @@ public class ShortCircuitCache implements Closeable {
       Waitable<ShortCircuitReplicaInfo> newWaitable) {
     // Handle loading a new replica.
     ShortCircuitReplicaInfo info = null;
+    long startNs = Time.monotonicNowNanos();
     try {
       LOG.trace("{}: loading {}", this, key);
       info = creator.createShortCircuitReplicaInfo();
     } catch (RuntimeException e) {
       LOG.warn(this + ": failed to load " + key, e);
     }
+    long loadTimeNs = Time.monotonicNowNanos() - startNs;
     if (info == null) info = new ShortCircuitReplicaInfo();
     lock.lock();
     try {
+      missCount++;
+      totalLoadTimeNs += loadTimeNs;
       if (info.getReplica() != null) {
         // On success, make sure the cache cleaner thread is running.
         LOG.trace("{}: successfully loaded {}", this, info.getReplica());
@@ -978,6 +1024,68 @@ public class ShortCircuitCache implements Closeable {
     }
   }
 
+  /**
+   * @return the number of lookups served by a replica already in the cache.
+   */
+  public long getHitCount() {
+    lock.lock();
+    try {
+      return hitCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of lookups which waited for a replica another thread
+   *         was loading from the DataNode.
+   */
+  public long getWaitCount() {
+    lock.lock();
+    try {
+      return waitCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of lookups which loaded a replica from the DataNode.
+   */
+  public long getMissCount() {
+    lock.lock();
+    try {
+      return missCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the total time spent loading replicas from the DataNode, in
+   *         nanoseconds.
+   */
+  public long getTotalLoadTimeNs() {
+    lock.lock();
+    try {
+      return totalLoadTimeNs;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of replicas evicted from the cache.
+   */
+  public long getEvictionCount() {
+    lock.lock();
+    try {
+      return evictionCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public String toString() {
     return "ShortCircuitCache(0x" +
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.hadoop.HadoopIllegalArgumentException;
 import org.apache.hadoop.classification.InterfaceAudience;
@@ -144,6 +145,8 @@ public abstract class ByteArrayManager {
     private final Queue<byte[]> freeQueue = new LinkedList<>();
 
     private int numAllocated = 0;
+    /** The number of allocations served by a recycled array. */
+    private long numRecycled = 0;
 
     FixedLengthManager(int arrayLength, int maxAllocated) {
       this.byteArrayLength = arrayLength;
@@ -181,7 +184,16 @@ public abstract class ByteArrayManager {
       if (LOG.isDebugEnabled()) {
         DEBUG_MESSAGE.get().append(", recycled? ").append(array != null);
       }
-      return array != null? array : new byte[byteArrayLength];
+      if (array != null) {
+        numRecycled++;
+        return array;
+      }
+      return new byte[byteArrayLength];
+    }
+
+    /** @return the total length of the recycled arrays allocated. */
+    synchronized long getRecycledBytes() {
+      return numRecycled * byteArrayLength;
     }
 
     /**
@@ -231,6 +243,15 @@ public abstract class ByteArrayManager {
       this.countLimit = countLimit;
     }
 
+    /** @return the total length of the recycled arrays allocated. */
+    synchronized long getRecycledBytes() {
+      long bytes = 0;
+      for (FixedLengthManager manager : map.values()) {
+        bytes += manager.getRecycledBytes();
+      }
+      return bytes;
+    }
+
     /** @return the manager for the given array length. */
     synchronized FixedLengthManager get(final Integer arrayLength,
         final boolean createIfNotExist) {
@@ -270,6 +291,39 @@ public abstract class ByteArrayManager {
     }
   }
 
+  /** The total length of the arrays returned by {@link #newByteArray(int)}. */
+  private final LongAdder allocatedBytes = new LongAdder();
+
+  void addAllocatedBytes(int length) {
+    allocatedBytes.add(length);
+  }
+
+  /**
+   * @return the total length of the arrays returned by
+   *         {@link #newByteArray(int)}, recycled or not.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  /**
+   * @return the total length of the arrays returned by
+   *         {@link #newByteArray(int)} which were recycled arrays rather than
+   *         newly created ones.
+   */
+  public long getRecycledBytes() {
+    return 0;
+  }
+
+  /**
+   * @return the total length of the arrays newly created by
+   *         {@link #newByteArray(int)}, i.e. the garbage which the writers
+   *         using this manager will leave behind.
+   */
+  public long getNewlyAllocatedBytes() {
+    return getAllocatedBytes() - getRecycledBytes();
+  }
+
   /**
    * Create a byte array for the given length, where the length of
    * the returned array is larger than or equal to the given length.
@@ -303,6 +357,7 @@ public abstract class ByteArrayManager {
   static class NewByteArrayWithoutLimit extends ByteArrayManager {
     @Override
     public byte[] newByteArray(int size) throws InterruptedException {
+      addAllocatedBytes(size);
       return new byte[size];
     }
 
@@ -370,6 +425,7 @@ public abstract class ByteArrayManager {
               .append(aboveThreshold? ", aboveThreshold": ", belowThreshold");
         }
         array = manager != null? manager.allocate(): new byte[powerOfTwo];
+        addAllocatedBytes(array.length);
       }
 
       if (LOG.isDebugEnabled()) {
@@ -411,6 +467,11 @@ public abstract class ByteArrayManager {
       return freeQueueSize;
     }
 
+    @Override
+    public long getRecycledBytes() {
+      return managers.getRecycledBytes();
+    }
+
     CounterMap getCounters() {
       return counters;
     }
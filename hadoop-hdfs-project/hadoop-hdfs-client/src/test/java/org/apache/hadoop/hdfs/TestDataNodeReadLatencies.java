@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hdfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
+import org.apache.hadoop.hdfs.protocol.DatanodeInfo.DatanodeInfoBuilder;
+import org.apache.hadoop.util.FakeTimer;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DataNodeReadLatencies}.
+ */
+public class TestDataNodeReadLatencies {
+  private static final long MB = 1024 * 1024;
+  private static final long MS = 1000000;
+
+  private static DatanodeInfo newNode(int port) {
+    return new DatanodeInfoBuilder().setIpAddr("127.0.0.1")
+        .setHostName("localhost").setXferPort(port).build();
+  }
+
+  @Test
+  public void testHedgedReadThreshold() {
+    DataNodeReadLatencies latencies =
+        new DataNodeReadLatencies(new FakeTimer());
+    DatanodeInfo node = newNode(1000);
+    // Nothing is known about the node yet.
+    assertEquals(500, latencies.getHedgedReadThresholdMillis(node, MB, 500));
+    assertTrue(latencies.getNanosPerByte(node) < 0);
+
+    for (int i = 0; i < 100; i++) {
+      latencies.addSample(node, 40 * MS, MB);
+    }
+    // Steady latencies leave hardly any deviation.
+    long threshold = latencies.getHedgedReadThresholdMillis(node, MB, 500);
+    assertTrue("threshold " + threshold, threshold >= 40 && threshold <= 42);
+    // The threshold scales with the size of the read.
+    threshold = latencies.getHedgedReadThresholdMillis(node, 2 * MB, 500);
+    assertTrue("threshold " + threshold, threshold >= 80 && threshold <= 84);
+    // The configured threshold remains the upper bound.
+    assertEquals(5, latencies.getHedgedReadThresholdMillis(node, MB, 5));
+    // Small reads do not get a threshold below the floor.
+    assertEquals(DataNodeReadLatencies.MIN_THRESHOLD_MILLIS,
+        latencies.getHedgedReadThresholdMillis(node, 1, 500));
+
+    // Variable latencies widen the threshold.
+    for (int i = 0; i < 100; i++) {
+      latencies.addSample(node, (i % 2 == 0 ? 10 : 100) * MS, MB);
+    }
+    assertTrue(latencies.getHedgedReadThresholdMillis(node, MB, 500) > 100);
+  }
+
+  @Test
+  public void testIsFaster() {
+    DataNodeReadLatencies latencies =
+        new DataNodeReadLatencies(new FakeTimer());
+    DatanodeInfo fast = newNode(1000);
+    DatanodeInfo slow = newNode(1001);
+    DatanodeInfo unknown = newNode(1002);
+    DatanodeInfo similar = newNode(1003);
+    latencies.addSample(fast, MS, MB);
+    latencies.addSample(slow, 100 * MS, MB);
+    latencies.addSample(similar, (long) (1.2 * MS), MB);
+    assertTrue(latencies.isFaster(fast, slow));
+    assertFalse(latencies.isFaster(slow, fast));
+    // Nodes never read from are not compared.
+    assertFalse(latencies.isFaster(fast, unknown));
+    assertFalse(latencies.isFaster(unknown, slow));
+    // A small difference is not enough to prefer a node.
+    assertFalse(latencies.isFaster(fast, similar));
+  }
+
+  @Test
+  public void testLatencyPerByte() {
+    DataNodeReadLatencies latencies =
+        new DataNodeReadLatencies(new FakeTimer());
+    DatanodeInfo large = newNode(1000);
+    DatanodeInfo small = newNode(1001);
+    // Reading 8MB in 80ms is as fast as reading 1MB in 10ms.
+    latencies.addSample(large, 80 * MS, 8 * MB);
+    latencies.addSample(small, 10 * MS, MB);
+    assertEquals(latencies.getNanosPerByte(small),
+        latencies.getNanosPerByte(large), 0.001);
+    assertFalse(latencies.isFaster(small, large));
+    assertFalse(latencies.isFaster(large, small));
+  }
+
+  @Test
+  public void testStaleEstimates() {
+    FakeTimer timer = new FakeTimer();
+    DataNodeReadLatencies latencies = new DataNodeReadLatencies(timer);
+    DatanodeInfo first = newNode(1000);
+    DatanodeInfo other = newNode(1001);
+    latencies.addSample(first, 100 * MS, MB);
+    latencies.addSample(other, MS, MB);
+    assertTrue(latencies.isFaster(other, first));
+
+    // Reads keep going to the other node, so the estimate of the first one
+    // ages out and reads go back to it.
+    timer.advance(DataNodeReadLatencies.STALE_MILLIS / 2);
+    latencies.addSample(other, MS, MB);
+    timer.advance(DataNodeReadLatencies.STALE_MILLIS / 2 + 1);
+    assertFalse(latencies.isFaster(other, first));
+    assertTrue(latencies.getNanosPerByte(first) < 0);
+    assertEquals(500,
+        latencies.getHedgedReadThresholdMillis(first, MB, 500));
+
+    // A new sample replaces the stale estimate instead of being averaged.
+    latencies.addSample(first, MS, MB);
+    assertEquals(MS / (double) MB, latencies.getNanosPerByte(first), 0.001);
+  }
+}
@@ -106,6 +106,26 @@ public class TestByteArrayManager {
 
   
 
+  @Test
+  public void testAllocatedBytes() throws Exception {
+    final ByteArrayManager.Impl bam = new ByteArrayManager.Impl(
+        new ByteArrayManager.Conf(0, 8, 10000L));
+    final byte[] array = bam.newByteArray(1000);
+    Assert.assertEquals(1024, bam.getAllocatedBytes());
+    Assert.assertEquals(0, bam.getRecycledBytes());
+
+    bam.release(array);
+    Assert.assertSame(array, bam.newByteArray(1000));
+    Assert.assertEquals(2048, bam.getAllocatedBytes());
+    Assert.assertEquals(1024, bam.getRecycledBytes());
+    Assert.assertEquals(1024, bam.getNewlyAllocatedBytes());
+
+    final ByteArrayManager unpooled = ByteArrayManager.newInstance(null);
+    unpooled.release(unpooled.newByteArray(1000));
+    unpooled.newByteArray(1000);
+    Assert.assertEquals(2000, unpooled.getNewlyAllocatedBytes());
+  }
+
   @Test
   public void testAllocateRecycle() throws Exception {
     final int countThreshold = 4;
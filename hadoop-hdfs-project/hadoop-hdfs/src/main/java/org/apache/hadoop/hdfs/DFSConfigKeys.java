@@ -165,6 +165,11 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
       "dfs.datanode.replica.cache.expiry.time";
   public static final long DFS_DATANODE_REPLICA_CACHE_EXPIRY_TIME_DEFAULT =
       300000;
+  public static final String
+      DFS_DATANODE_REPLICA_CACHE_CHECKPOINT_INTERVAL_KEY =
+      "dfs.datanode.replica.cache.checkpoint.interval";
+  public static final long
+      DFS_DATANODE_REPLICA_CACHE_CHECKPOINT_INTERVAL_DEFAULT = 0;
 
   // This setting is for testing/internal use only.
   public static final String  DFS_DATANODE_DUPLICATE_REPLICA_DELETION = "dfs.datanode.duplicate.replica.deletion";
@@ -306,6 +311,10 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
       = "dfs.namenode.blockreport.max.lock.hold.time";
   public static final long
       DFS_NAMENODE_BLOCKREPORT_MAX_LOCK_HOLD_TIME_DEFAULT = 4;
+  public static final String DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED
+      = "dfs.namenode.blockreport.yield-lock.enabled";
+  public static final boolean
+      DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED_DEFAULT = false;
 
   public static final String
       DFS_NAMENODE_CORRUPT_BLOCK_DELETE_IMMEDIATELY_ENABLED =
@@ -370,6 +379,10 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
   public static final int     DFS_NAMENODE_EDITS_DIR_MINIMUM_DEFAULT = 1;
   public static final String  DFS_NAMENODE_QUOTA_INIT_THREADS_KEY = "dfs.namenode.quota.init-threads";
   public static final int     DFS_NAMENODE_QUOTA_INIT_THREADS_DEFAULT = 12;
+  public static final String  DFS_NAMENODE_QUOTA_USAGE_CACHED_SUBTREES_KEY =
+      "dfs.namenode.quota-usage.cached-subtrees.enabled";
+  public static final boolean DFS_NAMENODE_QUOTA_USAGE_CACHED_SUBTREES_DEFAULT =
+      false;
 
   public static final String  DFS_NAMENODE_EDIT_LOG_AUTOROLL_MULTIPLIER_THRESHOLD = "dfs.namenode.edit.log.autoroll.multiplier.threshold";
   public static final float
@@ -391,6 +404,16 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
       "dfs.namenode.edits.asynclogging.pending.queue.size";
   public static final int
       DFS_NAMENODE_EDITS_ASYNC_LOGGING_PENDING_QUEUE_SIZE_DEFAULT = 4096;
+  public static final String
+      DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_WINDOW =
+      "dfs.namenode.edits.asynclogging.sync.window";
+  public static final long
+      DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_WINDOW_DEFAULT = 0; // us
+  public static final String
+      DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_MAX_BATCH =
+      "dfs.namenode.edits.asynclogging.sync.max.batch";
+  public static final int
+      DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_MAX_BATCH_DEFAULT = 1000;
 
   public static final String DFS_NAMENODE_PROVIDED_ENABLED = "dfs.namenode.provided.enabled";
   public static final boolean DFS_NAMENODE_PROVIDED_ENABLED_DEFAULT = false;
@@ -450,6 +473,16 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
   public static final boolean DFS_DATANODE_PMEM_CACHE_RECOVERY_DEFAULT =
       true;
 
+  public static final String DFS_DATANODE_READ_CACHE_DIR_KEY =
+      "dfs.datanode.read-cache.dir";
+  public static final String DFS_DATANODE_READ_CACHE_DIR_DEFAULT = "";
+  public static final String DFS_DATANODE_READ_CACHE_CAPACITY_KEY =
+      "dfs.datanode.read-cache.capacity";
+  public static final long DFS_DATANODE_READ_CACHE_CAPACITY_DEFAULT = 0;
+  public static final String DFS_DATANODE_READ_CACHE_ADMISSION_READS_KEY =
+      "dfs.datanode.read-cache.admission.reads";
+  public static final int DFS_DATANODE_READ_CACHE_ADMISSION_READS_DEFAULT = 3;
+
   public static final String DFS_DATANODE_PROCESS_COMMANDS_THRESHOLD_KEY =
       "dfs.datanode.processcommands.threshold";
   public static final long DFS_DATANODE_PROCESS_COMMANDS_THRESHOLD_DEFAULT =
@@ -600,6 +633,10 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
       "dfs.namenode.fslock.fair";
   public static final boolean DFS_NAMENODE_FSLOCK_FAIR_DEFAULT = true;
 
+  public static final String DFS_NAMENODE_TRAVERSE_ACCESS_CACHE_SIZE_KEY =
+      "dfs.namenode.traverse-access-cache.size";
+  public static final int DFS_NAMENODE_TRAVERSE_ACCESS_CACHE_SIZE_DEFAULT = 0;
+
   public static final String  DFS_NAMENODE_LOCK_DETAILED_METRICS_KEY =
       "dfs.namenode.lock.detailed-metrics.enabled";
   public static final boolean DFS_NAMENODE_LOCK_DETAILED_METRICS_DEFAULT =
@@ -897,6 +934,10 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
   public static final String DFS_DN_EC_RECONSTRUCTION_VALIDATION_KEY =
       "dfs.datanode.ec.reconstruction.validation";
   public static final boolean DFS_DN_EC_RECONSTRUCTION_VALIDATION_VALUE = false;
+  public static final String DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_KEY =
+      "dfs.datanode.ec.reconstruction.bandwidthPerSec";
+  public static final long DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_DEFAULT =
+      0;
 
   public static final String
       DFS_DATANODE_DIRECTORYSCAN_THROTTLE_LIMIT_MS_PER_SEC_KEY =
@@ -932,6 +973,9 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
   public static final String  DFS_DATANODE_MAX_RECEIVER_THREADS_KEY =
       HdfsClientConfigKeys.DeprecatedKeys.DFS_DATANODE_MAX_RECEIVER_THREADS_KEY;
   public static final int     DFS_DATANODE_MAX_RECEIVER_THREADS_DEFAULT = 4096;
+  public static final String  DFS_DATANODE_XCEIVER_SLOT_WAIT_MS_KEY =
+      "dfs.datanode.xceiver.slot.wait.ms";
+  public static final long    DFS_DATANODE_XCEIVER_SLOT_WAIT_MS_DEFAULT = 0;
   public static final String  DFS_DATANODE_SCAN_PERIOD_HOURS_KEY = "dfs.datanode.scan.period.hours";
   public static final int     DFS_DATANODE_SCAN_PERIOD_HOURS_DEFAULT = 21 * 24;  // 3 weeks.
   public static final String  DFS_BLOCK_SCANNER_VOLUME_BYTES_PER_SECOND = "dfs.block.scanner.volume.bytes.per.second";
@@ -950,6 +994,10 @@ public class DFSConfigKeys extends CommonConfigurationKeys {
       false;
   public static final String  DFS_DATANODE_TRANSFERTO_ALLOWED_KEY = "dfs.datanode.transferTo.allowed";
   public static final boolean DFS_DATANODE_TRANSFERTO_ALLOWED_DEFAULT = true;
+  public static final String  DFS_DATANODE_TRANSFERTO_PACKET_SIZE_KEY =
+      "dfs.datanode.transferTo.packet.size";
+  public static final int     DFS_DATANODE_TRANSFERTO_PACKET_SIZE_DEFAULT =
+      64 * 1024;
   public static final String  DFS_HEARTBEAT_INTERVAL_KEY = "dfs.heartbeat.interval";
   public static final long    DFS_HEARTBEAT_INTERVAL_DEFAULT = 3;
   public static final String  DFS_DATANODE_LIFELINE_INTERVAL_SECONDS_KEY =
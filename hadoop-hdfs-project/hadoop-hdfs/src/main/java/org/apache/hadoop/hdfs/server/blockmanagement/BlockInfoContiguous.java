@@ -29,6 +29,9 @@ import org.apache.hadoop.hdfs.protocol.BlockType;
 @InterfaceAudience.Private
 public class BlockInfoContiguous extends BlockInfo {
 
+  /** Number of unused triplets kept when the triplets are trimmed. */
+  private static final int SPARE_TRIPLETS = 1;
+
   public BlockInfoContiguous(short size) {
     super(size);
   }
@@ -86,9 +89,33 @@ public class BlockInfoContiguous extends BlockInfo {
     setStorageInfo(lastNode, null);
     setNext(lastNode, null);
     setPrevious(lastNode, null);
+    trimCapacity(lastNode);
     return true;
   }
 
+  /**
+   * Shrink the triplets back towards the replication factor once the excess
+   * replicas which made {@link #ensureCapacity(int)} grow them are gone,
+   * e.g. after decommissioning or lowering the replication, rather than
+   * keeping the spare slots for the lifetime of the block.
+   * <p>
+   * The triplets keep {@link #SPARE_TRIPLETS} slots beyond the replication
+   * factor and are only reallocated once more than that are unused. A
+   * balancer move, which adds the new replica before it removes the old
+   * one, then reuses the spare slot instead of copying the triplets twice
+   * under the namesystem lock, at the cost of one spare slot per block
+   * that ever had an excess replica.
+   * @param numNodes the number of storages currently in use.
+   */
+  private void trimCapacity(int numNodes) {
+    int capacity = Math.max(numNodes, getReplication()) + SPARE_TRIPLETS;
+    if (getCapacity() > capacity) {
+      Object[] old = triplets;
+      triplets = new Object[capacity * 3];
+      System.arraycopy(old, 0, triplets, 0, numNodes * 3);
+    }
+  }
+
   @Override
   boolean isProvided() {
     int len = getCapacity();
@@ -412,6 +412,9 @@ public class BlockManager implements BlockStatsMXBean {
   // Max write lock hold time for BlockReportProcessingThread(ms).
   private final long maxLockHoldTime;
 
+  // Whether full block reports release the write lock while processing.
+  private final boolean yieldLockForBlockReport;
+
   /**
    * When running inside a Standby node, the node may receive block reports
    * from datanodes before receiving the corresponding namespace edits from
@@ -564,6 +567,9 @@ public class BlockManager implements BlockStatsMXBean {
         DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_MAX_LOCK_HOLD_TIME,
         DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_MAX_LOCK_HOLD_TIME_DEFAULT,
         TimeUnit.MILLISECONDS);
+    this.yieldLockForBlockReport = conf.getBoolean(
+        DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED,
+        DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED_DEFAULT);
     this.numBlocksPerIteration = conf.getInt(
         DFSConfigKeys.DFS_BLOCK_MISREPLICATION_PROCESSING_LIMIT,
         DFSConfigKeys.DFS_BLOCK_MISREPLICATION_PROCESSING_LIMIT_DEFAULT);
@@ -3017,7 +3023,15 @@ public class BlockManager implements BlockStatsMXBean {
     assert (namesystem.hasWriteLock());
     assert (storageInfo.getBlockReportCount() == 0);
 
+    // Provided storages are not backed by a registered datanode.
+    final boolean yieldLock = yieldLockForBlockReport &&
+        !StorageType.PROVIDED.equals(storageInfo.getStorageType());
+    long lockStart = Time.monotonicNow();
     for (BlockReportReplica iblk : report) {
+      if (yieldLock && Time.monotonicNow() - lockStart > maxLockHoldTime) {
+        yieldWriteLock(storageInfo);
+        lockStart = Time.monotonicNow();
+      }
       ReplicaState reportedState = iblk.getState();
 
       if (LOG.isDebugEnabled()) {
@@ -3078,6 +3092,30 @@ public class BlockManager implements BlockStatsMXBean {
     }
   }
 
+  /**
+   * Let other namesystem operations run in the middle of processing a block
+   * report. Only used when the report is not part of a batch of block ops,
+   * so the current thread holds the write lock exactly once.
+   */
+  private void yieldWriteLock(DatanodeStorageInfo storageInfo)
+      throws IOException {
+    namesystem.writeUnlock();
+    final NameNodeMetrics metrics = NameNode.getNameNodeMetrics();
+    if (metrics != null) {
+      metrics.incrBlockReportLockYields();
+    }
+    namesystem.writeLock();
+    // The node may have been removed while the lock was released, in which
+    // case its storages must not receive any more replicas.
+    final DatanodeDescriptor node = storageInfo.getDatanodeDescriptor();
+    if (!node.isRegistered() ||
+        datanodeManager.getDatanode(node) != node ||
+        node.getStorageInfo(storageInfo.getStorageID()) != storageInfo) {
+      throw new IOException("Storage " + storageInfo.getStorageID()
+          + " of " + node + " was removed while processing its block report");
+    }
+  }
+
   private void reportDiff(DatanodeStorageInfo storageInfo,
       BlockListAsLongs newReport,
       Collection<BlockInfoToAdd> toAdd,     // add to DatanodeDescriptor
@@ -5233,10 +5271,24 @@ public class BlockManager implements BlockStatsMXBean {
     }
   }
 
-  // sync batch processing for a full BR.
+  // sync batch processing of an action.
   public <T> T runBlockOp(final Callable<T> action)
       throws IOException {
-    final FutureTask<T> future = new FutureTask<T>(action);
+    return runBlockOp(new FutureTask<T>(action));
+  }
+
+  /**
+   * Sync processing of a full BR. Unless
+   * {@link DFSConfigKeys#DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED} is set,
+   * the report is batched with other block ops like {@link #runBlockOp}.
+   */
+  public <T> T runFullBlockReportOp(final Callable<T> action)
+      throws IOException {
+    return runBlockOp(yieldLockForBlockReport ?
+        new UnbatchedBlockOp<T>(action) : new FutureTask<T>(action));
+  }
+
+  private <T> T runBlockOp(final FutureTask<T> future) throws IOException {
     enqueueBlockOp(future);
     try {
       return future.get();
@@ -5288,6 +5340,17 @@ public class BlockManager implements BlockStatsMXBean {
     return blockReportThread.queue.size();
   }
 
+  /**
+   * A block op that is run by the BlockReportProcessingThread without the
+   * namesystem write lock held, see
+   * {@link DFSConfigKeys#DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED}.
+   */
+  private static class UnbatchedBlockOp<T> extends FutureTask<T> {
+    UnbatchedBlockOp(Callable<T> callable) {
+      super(callable);
+    }
+  }
+
   private class BlockReportProcessingThread extends Thread {
     private long lastFull = 0;
 
@@ -5316,8 +5379,15 @@ public class BlockManager implements BlockStatsMXBean {
         NameNodeMetrics metrics = NameNode.getNameNodeMetrics();
         try {
           Runnable action = queue.take();
+          if (action instanceof UnbatchedBlockOp) {
+            // the op acquires the write lock itself, so it may release it.
+            metrics.setBlockOpsQueued(queue.size() + 1);
+            action.run();
+            continue;
+          }
           // batch as many operations in the write lock until the queue
-          // runs dry, or the max lock hold is reached.
+          // runs dry, the max lock hold is reached, or an op that must not
+          // be batched is next.
           int processed = 0;
           namesystem.writeLock();
           metrics.setBlockOpsQueued(queue.size() + 1);
@@ -5326,7 +5396,8 @@ public class BlockManager implements BlockStatsMXBean {
             do {
               processed++;
               action.run();
-              if (Time.monotonicNow() - start > maxLockHoldTime) {
+              if (Time.monotonicNow() - start > maxLockHoldTime ||
+                  queue.peek() instanceof UnbatchedBlockOp) {
                 break;
               }
               action = queue.poll();
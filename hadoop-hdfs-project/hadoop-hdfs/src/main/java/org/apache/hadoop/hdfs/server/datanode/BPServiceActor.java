@@ -700,7 +700,8 @@ class BPServiceActor implements Runnable {
           // -- Bytes remaining
           //
           boolean requestBlockReportLease = (fullBlockReportLeaseId == 0) &&
-                  scheduler.isBlockReportDue(startTime);
+                  scheduler.isBlockReportDue(startTime) &&
+                  !dn.isReconcilingReplicaCheckpoint(bpos.getBlockPoolId());
           if (!dn.areHeartbeatsDisabledForTests()) {
             resp = sendHeartBeat(requestBlockReportLease);
             assert resp != null;
@@ -737,14 +738,18 @@ class BPServiceActor implements Runnable {
         }
 
         List<DatanodeCommand> cmds = null;
-        boolean forceFullBr =
-            scheduler.forceFullBlockReport.getAndSet(false);
-        if (forceFullBr) {
-          LOG.info("Forcing a full block report to " + nnAddr);
-        }
-        if ((fullBlockReportLeaseId != 0) || forceFullBr) {
-          cmds = blockReport(fullBlockReportLeaseId);
-          fullBlockReportLeaseId = 0;
+        // Replicas loaded from a checkpoint are not reported before they
+        // have been reconciled with the disks.
+        if (!dn.isReconcilingReplicaCheckpoint(bpos.getBlockPoolId())) {
+          boolean forceFullBr =
+              scheduler.forceFullBlockReport.getAndSet(false);
+          if (forceFullBr) {
+            LOG.info("Forcing a full block report to " + nnAddr);
+          }
+          if ((fullBlockReportLeaseId != 0) || forceFullBr) {
+            cmds = blockReport(fullBlockReportLeaseId);
+            fullBlockReportLeaseId = 0;
+          }
         }
         commandProcessingThread.enqueue(cmds);
 
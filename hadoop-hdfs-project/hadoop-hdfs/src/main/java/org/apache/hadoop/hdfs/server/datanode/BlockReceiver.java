@@ -591,10 +591,13 @@ class BlockReceiver implements Closeable {
     if (mirrorOut != null && !mirrorError) {
       try {
         long begin = Time.monotonicNow();
+        long mirrorStartNanos = System.nanoTime();
         // For testing. Normally no-op.
         DataNodeFaultInjector.get().stopSendingPacketDownstream(mirrorAddr);
         packetReceiver.mirrorPacketTo(mirrorOut);
         mirrorOut.flush();
+        datanode.metrics.addReceivePacketMirrorNanos(
+            System.nanoTime() - mirrorStartNanos);
         long now = Time.monotonicNow();
         this.lastSentTime.set(now);
         long duration = now - begin;
@@ -639,7 +642,10 @@ class BlockReceiver implements Closeable {
 
       if (checksumReceivedLen > 0 && shouldVerifyChecksum()) {
         try {
+          long verifyStartNanos = System.nanoTime();
           verifyChunks(dataBuf, checksumBuf);
+          datanode.metrics.addReceivePacketVerifyNanos(
+              System.nanoTime() - verifyStartNanos);
         } catch (IOException ioe) {
           // checksum error detected locally. there is no reason to continue.
           if (responder != null) {
@@ -738,6 +744,7 @@ class BlockReceiver implements Closeable {
           
           // Write data to disk.
           long begin = Time.monotonicNow();
+          long writeStartNanos = System.nanoTime();
           streams.writeDataToDisk(dataBuf.array(),
               startByteToDisk, numBytesToDisk);
           // no-op in prod
@@ -824,7 +831,9 @@ class BlockReceiver implements Closeable {
 
           /// flush entire packet, sync if requested
           flushOrSync(syncBlock, seqno);
-          
+          datanode.metrics.addReceivePacketWriteNanos(
+              System.nanoTime() - writeStartNanos);
+
           replicaInfo.setLastChecksumAndDataLen(offsetInBlock, lastCrc);
 
           datanode.metrics.incrBytesWritten(len);
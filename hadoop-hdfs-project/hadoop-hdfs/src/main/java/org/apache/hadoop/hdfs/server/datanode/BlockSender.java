@@ -18,6 +18,7 @@
 package org.apache.hadoop.hdfs.server.datanode;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.FileInputStream;
@@ -40,6 +41,7 @@ import org.apache.hadoop.hdfs.HdfsConfiguration;
 import org.apache.hadoop.hdfs.protocol.Block;
 import org.apache.hadoop.hdfs.protocol.ExtendedBlock;
 import org.apache.hadoop.hdfs.protocol.datatransfer.PacketHeader;
+import org.apache.hadoop.hdfs.protocol.datatransfer.PacketReceiver;
 import org.apache.hadoop.hdfs.server.common.HdfsServerConstants.ReplicaState;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.FsVolumeReference;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.LengthInputStream;
@@ -105,19 +107,11 @@ class BlockSender implements java.io.Closeable {
   static final Log ClientTraceLog = DataNode.ClientTraceLog;
   private static final boolean is32Bit = 
       System.getProperty("sun.arch.data.model").equals("32");
-  /**
-   * Minimum buffer used while sending data to clients. Used only if
-   * transferTo() is enabled. 64KB is not that large. It could be larger, but
-   * not sure if there will be much more improvement.
-   */
-  private static final int MIN_BUFFER_WITH_TRANSFERTO = 64*1024;
   private static final int IO_FILE_BUFFER_SIZE;
   static {
     HdfsConfiguration conf = new HdfsConfiguration();
     IO_FILE_BUFFER_SIZE = DFSUtilClient.getIoFileBufferSize(conf);
   }
-  private static final int TRANSFERTO_BUFFER_SIZE = Math.max(
-      IO_FILE_BUFFER_SIZE, MIN_BUFFER_WITH_TRANSFERTO);
   
   /** the block to read from */
   private final ExtendedBlock block;
@@ -144,6 +138,8 @@ class BlockSender implements java.io.Closeable {
   private long seqno;
   /** Set to true if transferTo is allowed for sending data to the client */
   private final boolean transferToAllowed;
+  /** Amount of data sent in each packet when using transferTo. */
+  private final int transferToBufferSize;
   /** Set to true once entire requested byte range has been sent to the client */
   private boolean sentEntireByteRange;
   /** When true, verify checksum while reading from checksum file */
@@ -204,6 +200,23 @@ class BlockSender implements java.io.Closeable {
               boolean sendChecksum, DataNode datanode, String clientTraceFmt,
               CachingStrategy cachingStrategy)
       throws IOException {
+    this(block, startOffset, length, corruptChecksumOk, verifyChecksum,
+        sendChecksum, datanode, clientTraceFmt, cachingStrategy, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param clientRead whether the block is sent to a reading client, in
+   *        which case the data may come from a copy of the replica
+   * @see #BlockSender(ExtendedBlock, long, long, boolean, boolean, boolean,
+   *      DataNode, String, CachingStrategy)
+   */
+  BlockSender(ExtendedBlock block, long startOffset, long length,
+              boolean corruptChecksumOk, boolean verifyChecksum,
+              boolean sendChecksum, DataNode datanode, String clientTraceFmt,
+              CachingStrategy cachingStrategy, boolean clientRead)
+      throws IOException {
     InputStream blockIn = null;
     DataInputStream checksumIn = null;
     FsVolumeReference volumeRef = null;
@@ -293,6 +306,8 @@ class BlockSender implements java.io.Closeable {
       // use normal transfer in those cases
       this.transferToAllowed = datanode.getDnConf().transferToAllowed &&
         (!is32Bit || length <= Integer.MAX_VALUE);
+      this.transferToBufferSize = Math.max(IO_FILE_BUFFER_SIZE,
+          datanode.getDnConf().transferToPacketSize);
 
       // Obtain a reference before reading data
       volumeRef = datanode.data.getVolume(block).obtainReference();
@@ -330,10 +345,14 @@ class BlockSender implements java.io.Closeable {
             int expectedHeaderSize = BlockMetadataHeader.getHeaderSize();
             if (!replica.isOnTransientStorage() &&
                 metaIn.getLength() >= expectedHeaderSize) {
+              // Read the header by itself so the checksum buffer can be
+              // sized for the checksum parameters of this block.
+              byte[] header = new byte[expectedHeaderSize];
+              IOUtils.readFully(metaIn, header, 0, header.length);
+              csum = BlockMetadataHeader.readDataChecksum(new DataInputStream(
+                  new ByteArrayInputStream(header)), block);
               checksumIn = new DataInputStream(new BufferedInputStream(
-                  metaIn, IO_FILE_BUFFER_SIZE));
-
-              csum = BlockMetadataHeader.readDataChecksum(checksumIn, block);
+                  metaIn, getChecksumBufferSize(csum)));
               keepMetaInOpen = true;
             } else if (!replica.isOnTransientStorage() &&
                 metaIn.getLength() < expectedHeaderSize) {
@@ -428,7 +447,10 @@ class BlockSender implements java.io.Closeable {
       if (DataNode.LOG.isDebugEnabled()) {
         DataNode.LOG.debug("replica=" + replica);
       }
-      blockIn = datanode.data.getBlockInputStream(block, offset); // seek to offset
+      // seek to offset
+      blockIn = clientRead ?
+          datanode.data.getBlockInputStreamForClientRead(block, offset) :
+          datanode.data.getBlockInputStream(block, offset);
       ris = new ReplicaInputStreams(
           blockIn, checksumIn, volumeRef, fileIoProvider);
     } catch (IOException ioe) {
@@ -762,6 +784,23 @@ class BlockSender implements java.io.Closeable {
     }
   }
 
+  /**
+   * Size the buffer of the checksum stream to hold the checksums of a whole
+   * transferTo packet, so the meta file is not read several times per
+   * packet.
+   */
+  private int getChecksumBufferSize(DataChecksum checksum) {
+    if (!transferToAllowed) {
+      return IO_FILE_BUFFER_SIZE;
+    }
+    final long chunks = (transferToBufferSize
+        + Math.max(1, checksum.getBytesPerChecksum()) - 1)
+        / Math.max(1, checksum.getBytesPerChecksum());
+    return (int) Math.max(IO_FILE_BUFFER_SIZE,
+        Math.min(chunks * checksum.getChecksumSize(),
+            PacketReceiver.MAX_PACKET_SIZE));
+  }
+
   private long doSendBlock(DataOutputStream out, OutputStream baseStream,
         DataTransferThrottler throttler) throws IOException {
     if (out == null) {
@@ -794,7 +833,11 @@ class BlockSender implements java.io.Closeable {
             ((FileInputStream)ris.getDataIn()).getChannel();
         blockInPosition = fileChannel.position();
         streamForSendChunks = baseStream;
-        maxChunksPerPacket = numberOfChunks(TRANSFERTO_BUFFER_SIZE);
+        // Keep the whole packet within the size receivers accept.
+        maxChunksPerPacket = Math.max(1, Math.min(
+            numberOfChunks(transferToBufferSize),
+            (PacketReceiver.MAX_PACKET_SIZE - PacketHeader.PKT_MAX_HEADER_LEN)
+                / (chunkSize + checksumSize)));
         
         // Smaller packet size to only hold checksum when doing transferTo
         pktBufSize += checksumSize * maxChunksPerPacket;
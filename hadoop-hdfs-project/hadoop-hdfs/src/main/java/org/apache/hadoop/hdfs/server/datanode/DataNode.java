@@ -100,11 +100,13 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -373,6 +375,9 @@ public class DataNode extends ReconfigurableBase
   
   private  BlockScanner blockScanner;
   private DirectoryScanner directoryScanner = null;
+  /** Pending reconciles of block pools loaded from a replica checkpoint. */
+  private final Map<String, Future<?>> checkpointReconciles =
+      new ConcurrentHashMap<>();
   
   /** Activated plug-ins. */
   private List<ServicePlugin> plugins;
@@ -1250,7 +1255,7 @@ public class DataNode extends ReconfigurableBase
       reason = "verifcation is not supported by SimulatedFSDataset";
     } 
     if (reason == null) {
-      directoryScanner = new DirectoryScanner(data, conf);
+      directoryScanner = new DirectoryScanner(data, conf, metrics);
       directoryScanner.start();
     } else {
       LOG.warn("Periodic Directory Tree Verification scan " +
@@ -1838,9 +1843,56 @@ public class DataNode extends ReconfigurableBase
 
     blockScanner.enableBlockPoolId(bpos.getBlockPoolId());
     initDirectoryScanner(getConf());
+    if (directoryScanner != null &&
+        data.isReplicaMapFromCheckpoint(bpos.getBlockPoolId())) {
+      // A checkpoint misses the changes made after it was saved, so full
+      // block reports are held until the reconcile is done.
+      LOG.info("Replicas of {} were loaded from a checkpoint, reconciling " +
+          "them with the disks now", bpos.getBlockPoolId());
+      checkpointReconciles.put(bpos.getBlockPoolId(),
+          directoryScanner.reconcileSoon());
+    }
     initDiskBalancer(data, getConf());
   }
 
+  /**
+   * @return true until the replicas of a block pool loaded from a replica
+   *         checkpoint have been reconciled with the disks, during which its
+   *         full block reports must not be sent. A failed reconcile is run
+   *         again.
+   */
+  boolean isReconcilingReplicaCheckpoint(String bpid) {
+    synchronized (checkpointReconciles) {
+      final Future<?> reconcile = checkpointReconciles.get(bpid);
+      if (reconcile == null) {
+        return false;
+      }
+      if (!reconcile.isDone()) {
+        return true;
+      }
+      try {
+        reconcile.get();
+      } catch (ExecutionException | CancellationException e) {
+        // Reports must wait for a scan that succeeds.
+        LOG.warn("Failed to reconcile the replicas of {} loaded from a " +
+            "checkpoint, scanning again", bpid, e);
+        try {
+          checkpointReconciles.put(bpid, directoryScanner.reconcileSoon());
+        } catch (RejectedExecutionException ree) {
+          LOG.warn("Directory scanner is shut down, cannot reconcile {}",
+              bpid);
+        }
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return true;
+      }
+      checkpointReconciles.remove(bpid);
+      data.replicaMapReconciled(bpid);
+      return false;
+    }
+  }
+
   /**
    * Handles an AddBlockPoolException object thrown from
    * {@link org.apache.hadoop.hdfs.server.datanode.fsdataset.impl.FsVolumeList#
@@ -157,4 +157,10 @@ public class DataNodeFaultInjector {
   public void badDecoding(ByteBuffer[] outputs) {}
 
   public void markSlow(String dnAddr, int[] replies) {}
+
+  /**
+   * Used as a hook to fail the directory scanner while it reconciles a
+   * replica.
+   */
+  public void checkAndUpdate() throws IOException {}
 }
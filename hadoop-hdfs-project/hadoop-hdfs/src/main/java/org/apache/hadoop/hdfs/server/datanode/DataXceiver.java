@@ -599,7 +599,7 @@ class DataXceiver extends Receiver implements Runnable {
       try {
         blockSender = new BlockSender(block, blockOffset, length,
             true, false, sendChecksum, datanode, clientTraceFmt,
-            cachingStrategy);
+            cachingStrategy, true);
       } catch(IOException e) {
         String msg = "opReadBlock " + block + " received exception " + e; 
         LOG.info(msg);
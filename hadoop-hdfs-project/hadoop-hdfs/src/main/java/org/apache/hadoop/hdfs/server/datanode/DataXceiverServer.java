@@ -34,6 +34,7 @@ import org.apache.hadoop.hdfs.net.PeerServer;
 import org.apache.hadoop.hdfs.util.DataTransferThrottler;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.util.Daemon;
+import org.apache.hadoop.util.Time;
 
 import org.apache.hadoop.classification.VisibleForTesting;
 import org.apache.hadoop.util.Preconditions;
@@ -60,6 +61,7 @@ class DataXceiverServer implements Runnable {
   private final HashMap<Peer, DataXceiver> peersXceiver = new HashMap<>();
   private final Lock lock = new ReentrantLock();
   private final Condition noPeers = lock.newCondition();
+  private final Condition xceiverSlotFreed = lock.newCondition();
   private boolean closed = false;
   private int maxReconfigureWaitTime = DEFAULT_RECONFIGURE_WAIT;
 
@@ -70,6 +72,12 @@ class DataXceiverServer implements Runnable {
    */
   volatile int maxXceiverCount;
 
+  /**
+   * Time to wait for an xceiver to finish before rejecting a connection
+   * accepted while the maximal number of xceivers is running.
+   */
+  private final long xceiverSlotWaitMs;
+
   /**
    * A manager to make sure that cluster balancing does not take too much
    * resources.
@@ -190,6 +198,10 @@ class DataXceiverServer implements Runnable {
     Preconditions.checkArgument(this.maxXceiverCount >= 1,
         DFSConfigKeys.DFS_DATANODE_MAX_RECEIVER_THREADS_KEY +
         " should not be less than 1.");
+    this.xceiverSlotWaitMs = conf.getTimeDuration(
+        DFSConfigKeys.DFS_DATANODE_XCEIVER_SLOT_WAIT_MS_KEY,
+        DFSConfigKeys.DFS_DATANODE_XCEIVER_SLOT_WAIT_MS_DEFAULT,
+        TimeUnit.MILLISECONDS);
 
     this.estimateBlockSize = conf.getLongBytes(DFSConfigKeys.DFS_BLOCK_SIZE_KEY,
         DFSConfigKeys.DFS_BLOCK_SIZE_DEFAULT);
@@ -228,12 +240,7 @@ class DataXceiverServer implements Runnable {
         peer = peerServer.accept();
 
         // Make sure the xceiver count is not exceeded
-        int curXceiverCount = datanode.getXceiverCount();
-        if (curXceiverCount > maxXceiverCount) {
-          throw new IOException("Xceiver count " + curXceiverCount
-              + " exceeds the limit of concurrent xceivers: "
-              + maxXceiverCount);
-        }
+        checkXceiverCount();
 
         new Daemon(datanode.threadGroup,
             DataXceiver.create(peer, datanode, this))
@@ -295,6 +302,51 @@ class DataXceiverServer implements Runnable {
     closeAllPeers();
   }
 
+  /**
+   * Make sure the number of xceivers does not exceed the limit, waiting for
+   * an xceiver to finish or the limit to be raised for up to
+   * {@link #xceiverSlotWaitMs}. The connection already accepted is held
+   * meanwhile, and later ones wait in the listen backlog of the server socket.
+   *
+   * @throws IOException if no xceiver slot became available in time.
+   */
+  private void checkXceiverCount() throws IOException {
+    // Read the limit once per check, so a concurrent reconfiguration cannot
+    // make the count and the limit reported below disagree.
+    int maxCount = maxXceiverCount;
+    int curCount = datanode.getXceiverCount();
+    if (curCount <= maxCount) {
+      return;
+    }
+    if (xceiverSlotWaitMs > 0) {
+      final long start = Time.monotonicNow();
+      long nanos = TimeUnit.MILLISECONDS.toNanos(xceiverSlotWaitMs);
+      lock.lock();
+      try {
+        while (true) {
+          maxCount = maxXceiverCount;
+          curCount = datanode.getXceiverCount();
+          if (curCount <= maxCount) {
+            return;
+          }
+          if (nanos <= 0L || closed) {
+            break;
+          }
+          nanos = xceiverSlotFreed.awaitNanos(nanos);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        lock.unlock();
+        datanode.metrics.addDataNodeXceiverSlotWait(
+            Time.monotonicNow() - start);
+      }
+    }
+    datanode.metrics.incrDataNodeXceiversRejected();
+    throw new IOException("Xceiver count " + curCount
+        + " exceeds the limit of concurrent xceivers: " + maxCount);
+  }
+
   void kill() {
     assert (datanode.shouldRun == false || datanode.shutdownForUpgrade) :
       "shoudRun should be set to false or restarting should be true"
@@ -308,6 +360,7 @@ class DataXceiverServer implements Runnable {
     } catch (IOException ie) {
       LOG.warn("{}:DataXceiverServer.kill()", datanode.getDisplayName(), ie);
     } finally {
+      xceiverSlotFreed.signalAll();
       lock.unlock();
     }
   }
@@ -334,6 +387,7 @@ class DataXceiverServer implements Runnable {
       peersXceiver.remove(peer);
       datanode.metrics.decrDataNodeActiveXceiversCount();
       IOUtils.closeStream(peer);
+      xceiverSlotFreed.signal();
       if (peers.isEmpty()) {
         this.noPeers.signalAll();
       }
@@ -486,6 +540,7 @@ class DataXceiverServer implements Runnable {
       peers.remove(peer);
       peersXceiver.remove(peer);
       datanode.metrics.decrDataNodeActiveXceiversCount();
+      xceiverSlotFreed.signal();
     } finally {
       lock.unlock();
     }
@@ -517,7 +572,14 @@ class DataXceiverServer implements Runnable {
   public void setMaxXceiverCount(int xceiverCount) {
     Preconditions.checkArgument(xceiverCount > 0,
         "dfs.datanode.max.transfer.threads should be larger than 0");
-    maxXceiverCount = xceiverCount;
+    lock.lock();
+    try {
+      maxXceiverCount = xceiverCount;
+      // A raised limit may admit a connection waiting for a free slot.
+      xceiverSlotFreed.signalAll();
+    } finally {
+      lock.unlock();
+    }
   }
 
   @VisibleForTesting
@@ -46,8 +46,10 @@ import org.apache.hadoop.hdfs.DFSConfigKeys;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.FsDatasetSpi;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.FsVolumeSpi;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.FsVolumeSpi.ScanInfo;
+import org.apache.hadoop.hdfs.server.datanode.metrics.DataNodeMetrics;
 import org.apache.hadoop.util.Daemon;
 import org.apache.hadoop.util.StopWatch;
+import org.apache.hadoop.util.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +70,7 @@ public class DirectoryScanner implements Runnable {
   private final int reconcileBlocksBatchSize;
   private final long reconcileBlocksBatchInterval;
   private final FsDatasetSpi<?> dataset;
+  private final DataNodeMetrics metrics;
   private final ExecutorService reportCompileThreadPool;
   private final ScheduledExecutorService masterThread;
   private final long scanPeriodMsecs;
@@ -284,7 +287,20 @@ public class DirectoryScanner implements Runnable {
    * @param conf the Configuration object
    */
   public DirectoryScanner(FsDatasetSpi<?> dataset, Configuration conf) {
+    this(dataset, conf, null);
+  }
+
+  /**
+   * Create a new directory scanner, but don't cycle it running yet.
+   *
+   * @param dataset the dataset to scan
+   * @param conf the Configuration object
+   * @param metrics the DataNode metrics to record the scan cost in, or null
+   */
+  public DirectoryScanner(FsDatasetSpi<?> dataset, Configuration conf,
+      DataNodeMetrics metrics) {
     this.dataset = dataset;
+    this.metrics = metrics;
     this.stats = new HashMap<>(DEFAULT_MAP_SIZE);
     int interval = (int) conf.getTimeDuration(
         DFSConfigKeys.DFS_DATANODE_DIRECTORYSCAN_INTERVAL_KEY,
@@ -371,6 +387,19 @@ public class DirectoryScanner implements Runnable {
         TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Run a scan now, in addition to the periodic ones.
+   *
+   * @return a future that is done once the scan has finished, and fails if
+   *         the scan failed.
+   */
+  Future<?> reconcileSoon() {
+    return masterThread.submit(() -> {
+      reconcile();
+      return null;
+    });
+  }
+
   /**
    * Return whether the scanner has been started.
    *
@@ -493,6 +522,9 @@ public class DirectoryScanner implements Runnable {
    * "finalized blocks" lists of both disk and memory.
    */
   private void scan() {
+    final long startTime = Time.monotonicNow();
+    long totalBlocks = 0;
+    long totalDifferences = 0;
     BlockPoolReport blockPoolReport = new BlockPoolReport();
 
     clear();
@@ -586,6 +618,12 @@ public class DirectoryScanner implements Runnable {
         diffs.addAll(bpid, diffRecord);
       }
       LOG.info("Scan Results: {}", statsRecord);
+      totalBlocks += statsRecord.totalBlocks;
+      totalDifferences += diffRecord.size();
+    }
+    if (metrics != null) {
+      metrics.addDirectoryScan(Time.monotonicNow() - startTime, totalBlocks,
+          totalDifferences);
     }
   }
 
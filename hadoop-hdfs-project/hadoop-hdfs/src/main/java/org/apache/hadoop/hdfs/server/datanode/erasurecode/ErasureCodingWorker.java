@@ -17,6 +17,7 @@
  */
 package org.apache.hadoop.hdfs.server.datanode.erasurecode;
 
+import org.apache.hadoop.classification.VisibleForTesting;
 import org.apache.hadoop.util.Preconditions;
 import org.apache.hadoop.classification.InterfaceAudience;
 import org.apache.hadoop.conf.Configuration;
@@ -24,6 +25,7 @@ import org.apache.hadoop.hdfs.DFSConfigKeys;
 import org.apache.hadoop.hdfs.DFSUtilClient;
 import org.apache.hadoop.hdfs.server.datanode.DataNode;
 import org.apache.hadoop.hdfs.server.protocol.BlockECReconstructionCommand.BlockECReconstructionInfo;
+import org.apache.hadoop.hdfs.util.DataTransferThrottler;
 import org.apache.hadoop.hdfs.util.StripedBlockUtil.BlockReadStats;
 import org.apache.hadoop.util.Daemon;
 import org.slf4j.Logger;
@@ -31,11 +33,13 @@ import org.slf4j.Logger;
 import java.util.Collection;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ErasureCodingWorker handles the erasure coding reconstruction work commands.
@@ -50,6 +54,9 @@ public final class ErasureCodingWorker {
   private final DataNode datanode;
   private final Configuration conf;
   private final float xmitWeight;
+  /** Shared read budget of all reconstruction tasks, null if unlimited. */
+  private final DataTransferThrottler readThrottler;
+  private final AtomicLong taskSequence = new AtomicLong();
 
   private ThreadPoolExecutor stripedReconstructionPool;
   private ThreadPoolExecutor stripedReadPool;
@@ -65,6 +72,11 @@ public final class ErasureCodingWorker {
         "Invalid value configured for " +
             DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_XMITS_WEIGHT_KEY +
             ", it can not be negative value (" + this.xmitWeight + ").");
+    final long bandwidthPerSec = conf.getLongBytes(
+        DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_KEY,
+        DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_DEFAULT);
+    this.readThrottler = bandwidthPerSec > 0 ?
+        new DataTransferThrottler(bandwidthPerSec) : null;
 
     initializeStripedReadThreadPool();
     initializeStripedBlkReconstructionThreadPool(conf.getInt(
@@ -106,8 +118,10 @@ public final class ErasureCodingWorker {
   private void initializeStripedBlkReconstructionThreadPool(int numThreads) {
     LOG.debug("Using striped block reconstruction; pool threads={}",
         numThreads);
+    // Queued tasks are QueuedReconstruction instances, ordered so that block
+    // groups with the least remaining redundancy are reconstructed first.
     stripedReconstructionPool = DFSUtilClient.getThreadPoolExecutor(numThreads,
-        numThreads, 60, new LinkedBlockingQueue<>(),
+        numThreads, 60, new PriorityBlockingQueue<>(),
         "StripedBlockReconstruction-", false);
     stripedReconstructionPool.allowCoreThreadTimeOut(true);
   }
@@ -133,7 +147,7 @@ public final class ErasureCodingWorker {
         final StripedBlockReconstructor task =
             new StripedBlockReconstructor(this, stripedReconInfo);
         if (task.hasValidTargets()) {
-          stripedReconstructionPool.submit(task);
+          submitReconstruction(task, task.getRemainingRedundancy());
           // See HDFS-12044. We increase xmitsInProgress even the task is only
           // enqueued, so that
           //   1) NN will not send more tasks than what DN can execute and
@@ -152,6 +166,69 @@ public final class ErasureCodingWorker {
     }
   }
 
+  /**
+   * Queue a reconstruction task behind the tasks of block groups with the
+   * same or less remaining redundancy.
+   *
+   * @param task the reconstruction to run.
+   * @param remainingRedundancy number of live redundant blocks of the block
+   *                            group of the task.
+   * @throws RejectedExecutionException if the pool was shut down.
+   */
+  @VisibleForTesting
+  void submitReconstruction(Runnable task, int remainingRedundancy) {
+    getDatanode().getMetrics().incrECReconstructionQueuedTasks();
+    try {
+      stripedReconstructionPool.execute(new QueuedReconstruction(task,
+          remainingRedundancy, taskSequence.getAndIncrement()));
+    } catch (RejectedExecutionException e) {
+      getDatanode().getMetrics().decrECReconstructionQueuedTasks();
+      throw e;
+    }
+  }
+
+  /**
+   * A reconstruction task waiting in the pool queue. Tasks whose block group
+   * has fewer live redundant blocks go first, others in submission order.
+   */
+  private final class QueuedReconstruction
+      implements Runnable, Comparable<QueuedReconstruction> {
+    private final Runnable task;
+    private final int remainingRedundancy;
+    private final long sequence;
+
+    QueuedReconstruction(Runnable task, int remainingRedundancy,
+        long sequence) {
+      this.task = task;
+      this.remainingRedundancy = remainingRedundancy;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+      getDatanode().getMetrics().decrECReconstructionQueuedTasks();
+      task.run();
+    }
+
+    @Override
+    public int compareTo(QueuedReconstruction other) {
+      if (remainingRedundancy != other.remainingRedundancy) {
+        return Integer.compare(remainingRedundancy, other.remainingRedundancy);
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(sequence);
+    }
+  }
+
   DataNode getDatanode() {
     return datanode;
   }
@@ -160,6 +237,10 @@ public final class ErasureCodingWorker {
     return conf;
   }
 
+  DataTransferThrottler getReadThrottler() {
+    return readThrottler;
+  }
+
   CompletionService<BlockReadStats> createReadService() {
     return new ExecutorCompletionService<>(stripedReadPool);
   }
@@ -250,6 +250,13 @@ abstract class StripedReconstructor {
     return blockGroup;
   }
 
+  /**
+   * Get the number of live blocks beyond the minimum needed for decoding.
+   */
+  int getRemainingRedundancy() {
+    return liveBitSet.cardinality() - ecPolicy.getNumDataUnits();
+  }
+
   /**
    * Get the xmits that _will_ be used for this reconstruction task.
    */
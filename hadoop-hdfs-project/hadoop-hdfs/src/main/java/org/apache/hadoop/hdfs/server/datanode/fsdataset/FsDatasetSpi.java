@@ -302,6 +302,40 @@ public interface FsDatasetSpi<V extends FsVolumeSpi> extends FSDatasetMBean {
   InputStream getBlockInputStream(ExtendedBlock b, long seekOffset)
             throws IOException;
 
+  /**
+   * Returns an input stream at specified offset of the specified block, to
+   * serve a client read. Unlike {@link #getBlockInputStream}, the stream may
+   * read from a copy of the replica kept by the implementation, so it must
+   * not be used to scan, checksum or transfer the replica itself.
+   * @param b block
+   * @param seekOffset offset with in the block to seek to
+   * @return an input stream to read the contents of the specified block,
+   *  starting at the offset
+   * @throws IOException
+   */
+  default InputStream getBlockInputStreamForClientRead(ExtendedBlock b,
+      long seekOffset) throws IOException {
+    return getBlockInputStream(b, seekOffset);
+  }
+
+  /**
+   * @param bpid block pool Id
+   * @return true if the replicas of the block pool were loaded, at least in
+   *  part, from a periodic checkpoint rather than from the volumes, so that
+   *  they must be reconciled with the volumes soon.
+   */
+  default boolean isReplicaMapFromCheckpoint(String bpid) {
+    return false;
+  }
+
+  /**
+   * Called once the replicas of a block pool loaded from a periodic
+   * checkpoint have been reconciled with the volumes.
+   * @param bpid block pool Id
+   */
+  default void replicaMapReconciled(String bpid) {
+  }
+
   /**
    * Returns an input stream at specified offset of the specified block.
    * The block is still in the tmp directory and is not finalized
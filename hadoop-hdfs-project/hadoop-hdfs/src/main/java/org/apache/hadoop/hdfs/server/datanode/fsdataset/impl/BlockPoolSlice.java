@@ -109,7 +109,17 @@ class BlockPoolSlice {
    */
   private boolean deleteDuplicateReplicas;
   private static final String REPLICA_CACHE_FILE = "replicas";
+  /** Replica cache saved periodically while the DataNode runs. */
+  private static final String REPLICA_CHECKPOINT_FILE = "replicas.checkpoint";
   private final long replicaCacheExpiry;
+  /**
+   * Whether a checkpoint may be loaded. A checkpoint is not exact, so it is
+   * only used when the directory scanner can reconcile it.
+   */
+  private final boolean replicaCheckpointUsable;
+  private volatile boolean loadedFromCheckpoint = false;
+  /** Set once the replicas are saved at shutdown, to stop checkpoints. */
+  private boolean replicasSavedAtShutdown = false;
   private final File replicaCacheDir;
   private AtomicLong numOfBlocks = new AtomicLong();
   private final long cachedDfsUsedCheckTime;
@@ -204,6 +214,10 @@ class BlockPoolSlice {
         DFSConfigKeys.DFS_DATANODE_REPLICA_CACHE_EXPIRY_TIME_KEY,
         DFSConfigKeys.DFS_DATANODE_REPLICA_CACHE_EXPIRY_TIME_DEFAULT,
         TimeUnit.MILLISECONDS);
+    this.replicaCheckpointUsable = conf.getTimeDuration(
+        DFSConfigKeys.DFS_DATANODE_DIRECTORYSCAN_INTERVAL_KEY,
+        DFSConfigKeys.DFS_DATANODE_DIRECTORYSCAN_INTERVAL_DEFAULT,
+        TimeUnit.SECONDS) >= 0;
 
     // Use cached value initially if available. Or the following call will
     // block until the initial du command completes.
@@ -459,35 +473,71 @@ class BlockPoolSlice {
           "Recovered " + numRecovered + " replicas from " + lazypersistDir);
     }
 
-    boolean success = readReplicasFromCache(volumeMap, lazyWriteReplicaMap);
-    if (!success) {
-      List<IOException> exceptions = Collections
-          .synchronizedList(new ArrayList<IOException>());
-      Queue<RecursiveAction> subTaskQueue =
-          new ConcurrentLinkedQueue<RecursiveAction>();
+    final File checkpointFile = new File(replicaCacheDir,
+        REPLICA_CHECKPOINT_FILE);
+    if (readReplicasFromCache(volumeMap, lazyWriteReplicaMap,
+        REPLICA_CACHE_FILE, false)) {
+      // The cache saved at shutdown supersedes any checkpoint.
+      fileIoProvider.deleteWithExistsCheck(volume, checkpointFile);
+    } else if (replicaCheckpointUsable && readReplicasFromCache(volumeMap,
+        lazyWriteReplicaMap, REPLICA_CHECKPOINT_FILE, true)) {
+      // Only the finalized replicas of a checkpoint are used. Replicas being
+      // written are read from disk, and the directory scanner reconciles
+      // replicas finalized or deleted after the checkpoint.
+      loadedFromCheckpoint = true;
+      addReplicasFromDisk(volumeMap, lazyWriteReplicaMap, false);
+    } else {
+      fileIoProvider.deleteWithExistsCheck(volume, checkpointFile);
+      addReplicasFromDisk(volumeMap, lazyWriteReplicaMap, true);
+    }
+  }
 
-      // add finalized replicas
+  /**
+   * Add the replicas found in the rbw directory, and optionally those in the
+   * finalized directory, to the replica map.
+   */
+  private void addReplicasFromDisk(ReplicaMap volumeMap,
+      final RamDiskReplicaTracker lazyWriteReplicaMap,
+      boolean includeFinalized) throws IOException {
+    List<IOException> exceptions = Collections
+        .synchronizedList(new ArrayList<IOException>());
+    Queue<RecursiveAction> subTaskQueue =
+        new ConcurrentLinkedQueue<RecursiveAction>();
+
+    // add finalized replicas
+    ForkJoinTask<Void> finalizedTask = null;
+    if (includeFinalized) {
       AddReplicaProcessor task = new AddReplicaProcessor(volumeMap,
           finalizedDir, lazyWriteReplicaMap, true, exceptions, subTaskQueue);
-      ForkJoinTask<Void> finalizedTask = addReplicaThreadPool.submit(task);
+      finalizedTask = addReplicaThreadPool.submit(task);
+    }
 
-      // add rbw replicas
-      task = new AddReplicaProcessor(volumeMap, rbwDir, lazyWriteReplicaMap,
-          false, exceptions, subTaskQueue);
-      ForkJoinTask<Void> rbwTask = addReplicaThreadPool.submit(task);
+    // add rbw replicas
+    AddReplicaProcessor task = new AddReplicaProcessor(volumeMap, rbwDir,
+        lazyWriteReplicaMap, false, exceptions, subTaskQueue);
+    ForkJoinTask<Void> rbwTask = addReplicaThreadPool.submit(task);
 
-      try {
+    try {
+      if (finalizedTask != null) {
         finalizedTask.get();
-        rbwTask.get();
-      } catch (InterruptedException | ExecutionException e) {
-        exceptions.add(new IOException(
-            "Failed to start sub tasks to add replica in replica map :"
-                + e.getMessage()));
       }
-
-      //wait for all the tasks to finish.
-      waitForSubTaskToFinish(subTaskQueue, exceptions);
+      rbwTask.get();
+    } catch (InterruptedException | ExecutionException e) {
+      exceptions.add(new IOException(
+          "Failed to start sub tasks to add replica in replica map :"
+              + e.getMessage()));
     }
+
+    //wait for all the tasks to finish.
+    waitForSubTaskToFinish(subTaskQueue, exceptions);
+  }
+
+  /**
+   * @return whether the replica map was loaded from a periodic checkpoint,
+   *         and so has to be reconciled with the disk.
+   */
+  boolean isLoadedFromCheckpoint() {
+    return loadedFromCheckpoint;
   }
 
   /**
@@ -898,7 +948,7 @@ class BlockPoolSlice {
   }
 
   void shutdown(BlockListAsLongs blocksListToPersist) {
-    saveReplicas(blocksListToPersist);
+    saveReplicas(blocksListToPersist, false);
     saveDfsUsed();
     dfsUsedSaved = true;
 
@@ -912,10 +962,18 @@ class BlockPoolSlice {
     }
   }
 
+  /**
+   * Read the replicas from a cache file, which is deleted afterwards.
+   *
+   * @param fileName name of the cache file
+   * @param finalizedOnly whether to only read the finalized replicas
+   * @return whether the replicas were read
+   */
   private boolean readReplicasFromCache(ReplicaMap volumeMap,
-      final RamDiskReplicaTracker lazyWriteReplicaMap) {
+      final RamDiskReplicaTracker lazyWriteReplicaMap, String fileName,
+      boolean finalizedOnly) {
     ReplicaMap tmpReplicaMap = new ReplicaMap(new ReentrantReadWriteLock());
-    File replicaFile = new File(replicaCacheDir, REPLICA_CACHE_FILE);
+    File replicaFile = new File(replicaCacheDir, fileName);
     // Check whether the file exists or not.
     if (!replicaFile.exists()) {
       LOG.info("Replica Cache file: "+  replicaFile.getPath() +
@@ -950,7 +1008,10 @@ class BlockPoolSlice {
         case RUR:
         case RBW:
         case RWR:
-          addReplicaToReplicasMap(replica, tmpReplicaMap, lazyWriteReplicaMap, false);
+          if (!finalizedOnly) {
+            addReplicaToReplicasMap(replica, tmpReplicaMap,
+                lazyWriteReplicaMap, false);
+          }
           break;
         default:
           break;
@@ -988,15 +1049,35 @@ class BlockPoolSlice {
     }
   }
 
-  private void saveReplicas(BlockListAsLongs blocksListToPersist) {
+  /**
+   * Save the replicas to a cache file.
+   *
+   * @param checkpoint whether this is a periodic checkpoint rather than the
+   *                   save at shutdown
+   */
+  synchronized void saveReplicas(BlockListAsLongs blocksListToPersist,
+      boolean checkpoint) {
+    if (replicasSavedAtShutdown) {
+      return;
+    }
+    final File checkpointFile = new File(replicaCacheDir,
+        REPLICA_CHECKPOINT_FILE);
+    if (!checkpoint) {
+      replicasSavedAtShutdown = true;
+      // The cache saved at shutdown supersedes any checkpoint.
+      if (!fileIoProvider.deleteWithExistsCheck(volume, checkpointFile)) {
+        return;
+      }
+    }
     if (blocksListToPersist == null ||
         blocksListToPersist.getNumberOfBlocks()== 0) {
       return;
     }
-    final File tmpFile = new File(replicaCacheDir, REPLICA_CACHE_FILE + ".tmp");
-    final File replicaCacheFile = new File(replicaCacheDir, REPLICA_CACHE_FILE);
-    if (!fileIoProvider.deleteWithExistsCheck(volume, tmpFile) ||
-        !fileIoProvider.deleteWithExistsCheck(volume, replicaCacheFile)) {
+    final File replicaCacheFile = checkpoint ? checkpointFile :
+        new File(replicaCacheDir, REPLICA_CACHE_FILE);
+    final File tmpFile = new File(replicaCacheDir,
+        replicaCacheFile.getName() + ".tmp");
+    if (!fileIoProvider.deleteWithExistsCheck(volume, tmpFile)) {
       return;
     }
 
@@ -1005,14 +1086,13 @@ class BlockPoolSlice {
       out = fileIoProvider.getFileOutputStream(volume, tmpFile);
       blocksListToPersist.writeTo(out);
       out.close();
-      // Renaming the tmp file to replicas
-      fileIoProvider.moveFile(volume, tmpFile, replicaCacheFile);
+      // Replace the previous file with the tmp file in one rename, so a
+      // crash never leaves a partially written cache file.
+      fileIoProvider.replaceFile(volume, tmpFile, replicaCacheFile);
     } catch (Exception e) {
       // If write failed, the volume might be bad. Since the cache file is
-      // not critical, log the error, delete both the files (tmp and cache)
-      // and continue.
+      // not critical, log the error, delete the tmp file and continue.
       LOG.warn("Failed to write replicas to cache ", e);
-      fileIoProvider.deleteWithExistsCheck(volume, replicaCacheFile);
     } finally {
       IOUtils.closeStream(out);
       fileIoProvider.deleteWithExistsCheck(volume, tmpFile);
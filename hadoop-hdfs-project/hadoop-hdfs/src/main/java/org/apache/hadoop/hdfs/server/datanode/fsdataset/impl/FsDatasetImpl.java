@@ -41,6 +41,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -78,6 +80,7 @@ import org.apache.hadoop.hdfs.server.common.HdfsServerConstants.ReplicaState;
 import org.apache.hadoop.hdfs.server.common.Storage;
 import org.apache.hadoop.hdfs.server.datanode.BlockMetadataHeader;
 import org.apache.hadoop.hdfs.server.datanode.DataNode;
+import org.apache.hadoop.hdfs.server.datanode.DataNodeFaultInjector;
 import org.apache.hadoop.hdfs.server.datanode.metrics.DataNodeMetricHelper;
 import org.apache.hadoop.hdfs.server.datanode.DataStorage;
 import org.apache.hadoop.hdfs.server.datanode.DatanodeUtil;
@@ -114,6 +117,7 @@ import org.apache.hadoop.metrics2.MetricsCollector;
 import org.apache.hadoop.metrics2.MetricsSystem;
 import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
 import org.apache.hadoop.metrics2.util.MBeans;
+import org.apache.hadoop.thirdparty.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.hadoop.util.Daemon;
 import org.apache.hadoop.util.DataChecksum;
 import org.apache.hadoop.util.DiskChecker.DiskErrorException;
@@ -254,7 +258,14 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
   final Map<String, DatanodeStorage> storageMap;
   final FsDatasetAsyncDiskService asyncDiskService;
   final Daemon lazyWriter;
+  /** Saves the replica cache files periodically, if enabled. */
+  private final ScheduledExecutorService replicaCacheCheckpointer;
+  /** Block pools loaded from a checkpoint and not reconciled yet. */
+  private final Set<String> checkpointLoadedBlockPools =
+      ConcurrentHashMap.newKeySet();
   final FsDatasetCache cacheManager;
+  /** Copies of frequently read blocks on a fast device, if enabled. */
+  private final ReplicaReadCache readCache;
   private final Configuration conf;
   private final int volFailuresTolerated;
   private final int volsConfigured;
@@ -385,6 +396,13 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     setupAsyncLazyPersistThreads();
 
     cacheManager = new FsDatasetCache(this);
+    if (ReplicaReadCache.isEnabled(conf)) {
+      readCache = new ReplicaReadCache(new File(conf.getTrimmed(
+          DFSConfigKeys.DFS_DATANODE_READ_CACHE_DIR_KEY)), conf,
+          datanode.getMetrics());
+    } else {
+      readCache = null;
+    }
 
     // Start the lazy writer once we have built the replica maps.
     // We need to start the lazy writer even if MaxLockedMemory is set to
@@ -399,6 +417,21 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
       lazyWriter = null;
     }
 
+    long checkpointInterval = conf.getTimeDuration(
+        DFSConfigKeys.DFS_DATANODE_REPLICA_CACHE_CHECKPOINT_INTERVAL_KEY,
+        DFSConfigKeys.DFS_DATANODE_REPLICA_CACHE_CHECKPOINT_INTERVAL_DEFAULT,
+        TimeUnit.MILLISECONDS);
+    if (checkpointInterval > 0) {
+      replicaCacheCheckpointer = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setDaemon(true)
+              .setNameFormat("ReplicaCacheCheckpointer").build());
+      replicaCacheCheckpointer.scheduleWithFixedDelay(
+          this::checkpointReplicaCaches, checkpointInterval,
+          checkpointInterval, TimeUnit.MILLISECONDS);
+    } else {
+      replicaCacheCheckpointer = null;
+    }
+
     registerMBean(datanode.getDatanodeUuid());
 
     // Add a Metrics2 Source Interface. This is same
@@ -850,7 +883,17 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
   @Override // FsDatasetSpi
   public InputStream getBlockInputStream(ExtendedBlock b,
       long seekOffset) throws IOException {
+    return getBlockInputStream(b, seekOffset, false);
+  }
+
+  @Override // FsDatasetSpi
+  public InputStream getBlockInputStreamForClientRead(ExtendedBlock b,
+      long seekOffset) throws IOException {
+    return getBlockInputStream(b, seekOffset, true);
+  }
 
+  private InputStream getBlockInputStream(ExtendedBlock b,
+      long seekOffset, boolean clientRead) throws IOException {
     ReplicaInfo info;
     try (AutoCloseableLock lock = datasetReadLock.acquire()) {
       info = volumeMap.get(b.getBlockPoolId(), b.getLocalBlock());
@@ -864,15 +907,18 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     if (info == null) {
       throw new IOException("No data exists for block " + b);
     }
-    return getBlockInputStreamWithCheckingPmemCache(info, b, seekOffset);
+    return getBlockInputStreamWithCheckingPmemCache(info, b, seekOffset,
+        clientRead);
   }
 
   /**
    * Check whether the replica is cached to persistent memory.
    * If so, get DataInputStream of the corresponding cache file on pmem.
+   * Client reads may also be served from the read cache.
    */
   private InputStream getBlockInputStreamWithCheckingPmemCache(
-      ReplicaInfo info, ExtendedBlock b, long seekOffset) throws IOException {
+      ReplicaInfo info, ExtendedBlock b, long seekOffset, boolean clientRead)
+      throws IOException {
     String cachePath = cacheManager.getReplicaCachePath(
         b.getBlockPoolId(), b.getBlockId());
     if (cachePath != null) {
@@ -887,6 +933,13 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
       return FsDatasetUtil.getInputStreamAndSeek(
           new File(cachePath), seekOffset);
     }
+    if (clientRead && readCache != null) {
+      InputStream in = readCache.getInputStream(
+          b.getBlockPoolId(), info, seekOffset);
+      if (in != null) {
+        return in;
+      }
+    }
     return info.getDataInputStream(seekOffset);
   }
 
@@ -2371,6 +2424,11 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
 
       // If the block is cached, start uncaching it.
       cacheManager.uncacheBlock(bpid, invalidBlks[i].getBlockId());
+      // A client that read a corrupt copy from the read cache gets the
+      // replica invalidated, so the copy must go with it.
+      if (readCache != null) {
+        readCache.invalidate(bpid, invalidBlks[i].getBlockId());
+      }
 
       try {
         if (async) {
@@ -2418,6 +2476,9 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
 
     // If the block is cached, start uncaching it.
     cacheManager.uncacheBlock(bpid, block.getBlockId());
+    if (readCache != null) {
+      readCache.invalidate(bpid, block.getBlockId());
+    }
 
     datanode.notifyNamenodeDeletedBlock(new ExtendedBlock(bpid, block),
         block.getStorageUuid());
@@ -2559,6 +2620,17 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
       MBeans.unregister(mbeanName);
       mbeanName = null;
     }
+
+    if (replicaCacheCheckpointer != null) {
+      replicaCacheCheckpointer.shutdownNow();
+      try {
+        replicaCacheCheckpointer.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException ie) {
+        LOG.warn("FsDatasetImpl.shutdown ignoring InterruptedException " +
+            "while waiting for the replica cache checkpointer");
+        Thread.currentThread().interrupt();
+      }
+    }
     
     if (asyncDiskService != null) {
       asyncDiskService.shutdown();
@@ -2582,6 +2654,9 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     }
 
     cacheManager.shutdown();
+    if (readCache != null) {
+      readCache.shutdown();
+    }
   }
 
   @Override // FSDatasetMBean
@@ -2620,6 +2695,7 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     FsVolumeSpi vol = scanInfo.getVolume();
 
     Block corruptBlock = null;
+    boolean staleReplica = false;
     ReplicaInfo memBlockInfo;
     long startTimeMs = Time.monotonicNow();
     if (startTimeMs - lastDirScannerNotifyTime >
@@ -2628,6 +2704,7 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
       lastDirScannerNotifyTime = startTimeMs;
     }
     try (AutoCloseableLock lock = datasetWriteLock.acquire()) {
+      DataNodeFaultInjector.get().checkAndUpdate();
       memBlockInfo = volumeMap.get(bpid, blockId);
       if (memBlockInfo != null &&
           memBlockInfo.getState() != ReplicaState.FINALIZED) {
@@ -2796,6 +2873,10 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
             LOG.warn("Updating generation stamp for block " + blockId
                 + " from " + memBlockInfo.getGenerationStamp() + " to " + gs);
 
+            // A newer generation stamp on disk means the replica was appended
+            // or recovered after it was recorded, e.g. in a replica map
+            // checkpoint, so a different length is expected, not corrupt.
+            staleReplica = gs > memBlockInfo.getGenerationStamp();
             memBlockInfo.setGenerationStamp(gs);
           } catch (IllegalArgumentException e) {
             //exception arises because the URI cannot be converted to a file
@@ -2807,7 +2888,9 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
       // Compare block size
       if (memBlockInfo.getNumBytes() != memBlockInfo.getBlockDataLength()) {
         // Update the length based on the block file
-        corruptBlock = new Block(memBlockInfo);
+        if (!staleReplica) {
+          corruptBlock = new Block(memBlockInfo);
+        }
         LOG.warn("Updating size of block " + blockId + " from "
             + memBlockInfo.getNumBytes() + " to "
             + memBlockInfo.getBlockDataLength());
@@ -3101,6 +3184,11 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     } catch (AddBlockPoolException e) {
       volumeExceptions.mergeException(e);
     }
+    for (FsVolumeImpl v : volumes.getVolumes()) {
+      if (v.isReplicaMapFromCheckpoint(bpid)) {
+        checkpointLoadedBlockPools.add(bpid);
+      }
+    }
     if (volumeExceptions.hasExceptions()) {
       throw volumeExceptions;
     }
@@ -3116,6 +3204,37 @@ class FsDatasetImpl implements FsDatasetSpi<FsVolumeImpl> {
     blockPoolId = bpid;
   }
 
+  @Override // FsDatasetSpi
+  public boolean isReplicaMapFromCheckpoint(String bpid) {
+    return checkpointLoadedBlockPools.contains(bpid);
+  }
+
+  @Override // FsDatasetSpi
+  public void replicaMapReconciled(String bpid) {
+    checkpointLoadedBlockPools.remove(bpid);
+  }
+
+  /**
+   * Save the replica cache file of every block pool on every volume, so that
+   * a restart after an unclean shutdown does not have to scan the volumes.
+   */
+  @VisibleForTesting
+  void checkpointReplicaCaches() {
+    for (String bpid : volumeMap.getBlockPoolList()) {
+      try {
+        Map<DatanodeStorage, BlockListAsLongs> blocksPerVolume =
+            getBlockReports(bpid);
+        for (FsVolumeImpl v : volumes.getVolumes()) {
+          v.checkpointReplicas(bpid,
+              blocksPerVolume.get(v.toDatanodeStorage()));
+        }
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to checkpoint the replica cache of block pool {}",
+            bpid, e);
+      }
+    }
+  }
+
   @Override
   public void shutdownBlockPool(String bpid) {
     try (AutoCloseableLock lock = datasetWriteLock.acquire()) {
@@ -1122,6 +1122,18 @@ public class FsVolumeImpl implements FsVolumeSpi {
     bpSlices.put(bpid, bp);
   }
 
+  void checkpointReplicas(String bpid, BlockListAsLongs blocksListsAsLongs) {
+    BlockPoolSlice bp = bpSlices.get(bpid);
+    if (bp != null) {
+      bp.saveReplicas(blocksListsAsLongs, true);
+    }
+  }
+
+  boolean isReplicaMapFromCheckpoint(String bpid) {
+    BlockPoolSlice bp = bpSlices.get(bpid);
+    return bp != null && bp.isLoadedFromCheckpoint();
+  }
+
   void shutdownBlockPool(String bpid, BlockListAsLongs blocksListsAsLongs) {
     BlockPoolSlice bp = bpSlices.get(bpid);
     if (bp != null) {
@@ -83,7 +83,8 @@ class ReplicaMap {
   ReplicaInfo get(String bpid, Block block) {
     checkBlockPool(bpid);
     checkBlock(block);
-    ReplicaInfo replicaInfo = get(bpid, block.getBlockId());
+    // Blocks are keyed by id alone, so the block itself is the lookup key.
+    ReplicaInfo replicaInfo = getByKey(bpid, block);
     if (replicaInfo != null && 
         block.getGenerationStamp() == replicaInfo.getGenerationStamp()) {
       return replicaInfo;
@@ -100,9 +101,13 @@ class ReplicaMap {
    */
   ReplicaInfo get(String bpid, long blockId) {
     checkBlockPool(bpid);
+    return getByKey(bpid, new Block(blockId));
+  }
+
+  private ReplicaInfo getByKey(String bpid, Block key) {
     try (AutoCloseableLock l = readLock.acquire()) {
       LightWeightResizableGSet<Block, ReplicaInfo> m = map.get(bpid);
-      return m != null ? m.get(new Block(blockId)) : null;
+      return m != null ? m.get(key) : null;
     }
   }
 
@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdfs.server.datanode.fsdataset.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.hadoop.classification.VisibleForTesting;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.StorageType;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.server.common.HdfsServerConstants.ReplicaState;
+import org.apache.hadoop.hdfs.server.datanode.BlockMetadataHeader;
+import org.apache.hadoop.hdfs.server.datanode.ReplicaInfo;
+import org.apache.hadoop.hdfs.server.datanode.metrics.DataNodeMetrics;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.thirdparty.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.hadoop.util.DataChecksum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps copies of frequently read finalized blocks in a directory on a fast
+ * device, and serves reads of those blocks from their copies.
+ * <p>
+ * A block is copied once it has been read
+ * {@link DFSConfigKeys#DFS_DATANODE_READ_CACHE_ADMISSION_READS_KEY} times, so
+ * blocks read once do not push hot blocks out. Copies are evicted in least
+ * recently read order once the cache exceeds its capacity. Copies are keyed
+ * by block pool, block id and generation stamp: a finalized replica with a
+ * given generation stamp never changes, and appends, truncates and recovery
+ * bump the generation stamp, so a copy can never serve stale data. Only the
+ * block file is copied; checksums are still read from the replica's meta file.
+ * A copy is verified against those checksums before it is served, and is
+ * dropped when its replica is invalidated, which is how the NameNode acts on
+ * a checksum failure reported by a client.
+ */
+class ReplicaReadCache {
+  static final Logger LOG = LoggerFactory.getLogger(ReplicaReadCache.class);
+
+  /** The maximum number of not yet cached blocks whose reads are counted. */
+  private static final int MAX_TRACKED_BLOCKS = 65536;
+  /** The number of bytes of a copy verified at once. */
+  private static final int VERIFY_BUFFER_SIZE = 1024 * 1024;
+  /** Names of copies, {@code <bpid>_<block id>_<generation stamp>}. */
+  private static final Pattern COPY_NAME =
+      Pattern.compile(".+_-?\\d+_\\d+(\\.tmp)?");
+
+  private final File dir;
+  private final long capacity;
+  private final int admissionReads;
+  private final DataNodeMetrics metrics;
+  private final ExecutorService loader;
+
+  /** Read counts of blocks not cached yet, the least recently read first. */
+  private final LinkedHashMap<String, Integer> readCounts =
+      new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> e) {
+          return size() > MAX_TRACKED_BLOCKS;
+        }
+      };
+  /** Lengths of the cached copies, the least recently read first. */
+  private final LinkedHashMap<String, Long> cached =
+      new LinkedHashMap<>(16, 0.75f, true);
+  /** Blocks being copied into the cache. */
+  private final Set<String> loading = new HashSet<>();
+  private long cachedBytes = 0;
+
+  ReplicaReadCache(File dir, Configuration conf, DataNodeMetrics metrics)
+      throws IOException {
+    this.dir = dir;
+    this.capacity = conf.getLongBytes(
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_CAPACITY_KEY,
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_CAPACITY_DEFAULT);
+    this.admissionReads = Math.max(1, conf.getInt(
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_ADMISSION_READS_KEY,
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_ADMISSION_READS_DEFAULT));
+    this.metrics = metrics;
+    // The copies of a previous run are not known to be current. Only files
+    // named like copies are removed, in case the directory is shared.
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File f : files) {
+        if (f.isFile() && COPY_NAME.matcher(f.getName()).matches()
+            && !f.delete()) {
+          throw new IOException("Failed to clear the read cache " + dir);
+        }
+      }
+    }
+    if (!dir.exists() && !dir.mkdirs()) {
+      throw new IOException("Failed to create the read cache " + dir);
+    }
+    this.loader = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("ReplicaReadCacheLoader").build());
+    LOG.info("Caching frequently read blocks in {} with a capacity of {} " +
+        "bytes", dir, capacity);
+  }
+
+  /**
+   * @return whether the configuration enables the read cache.
+   */
+  static boolean isEnabled(Configuration conf) {
+    return !conf.getTrimmed(DFSConfigKeys.DFS_DATANODE_READ_CACHE_DIR_KEY,
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_DIR_DEFAULT).isEmpty()
+        && conf.getLongBytes(DFSConfigKeys.DFS_DATANODE_READ_CACHE_CAPACITY_KEY,
+        DFSConfigKeys.DFS_DATANODE_READ_CACHE_CAPACITY_DEFAULT) > 0;
+  }
+
+  private static boolean isCacheable(ReplicaInfo info) {
+    if (info.getState() != ReplicaState.FINALIZED) {
+      return false;
+    }
+    StorageType type = info.getVolume().getStorageType();
+    return type == StorageType.DISK || type == StorageType.ARCHIVE;
+  }
+
+  private static String getKey(String bpid, ReplicaInfo info) {
+    return bpid + "_" + info.getBlockId() + "_" + info.getGenerationStamp();
+  }
+
+  /**
+   * Record a read of the replica.
+   *
+   * @return a stream over the cached copy of the replica, positioned at the
+   *         given offset, or null if the replica is not cached.
+   */
+  InputStream getInputStream(String bpid, ReplicaInfo info, long seekOffset) {
+    if (!isCacheable(info)) {
+      return null;
+    }
+    final String key = getKey(bpid, info);
+    synchronized (this) {
+      if (cached.get(key) == null) {
+        metrics.incrReadCacheMisses();
+        admit(key, info);
+        return null;
+      }
+    }
+    final File copy = new File(dir, key);
+    FileInputStream in = null;
+    try {
+      in = new FileInputStream(copy);
+      in.getChannel().position(seekOffset);
+      metrics.incrReadCacheHits();
+      return in;
+    } catch (IOException e) {
+      LOG.warn("Failed to read the cached copy {}, dropping it", copy, e);
+      IOUtils.closeStream(in);
+      drop(key);
+      return null;
+    }
+  }
+
+  /**
+   * Drop the copies of a block, e.g. because its replica was invalidated
+   * after a client reported a checksum failure reading it. A copy being
+   * loaded is dropped once the load is done.
+   */
+  void invalidate(String bpid, long blockId) {
+    final String prefix = bpid + "_" + blockId + "_";
+    final List<String> keys = new ArrayList<>();
+    synchronized (this) {
+      for (String key : cached.keySet()) {
+        if (key.startsWith(prefix)) {
+          keys.add(key);
+        }
+      }
+      loading.removeIf(key -> key.startsWith(prefix));
+      readCounts.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+    for (String key : keys) {
+      drop(key);
+    }
+  }
+
+  /** Remove a copy from the cache and delete it. */
+  private void drop(String key) {
+    final Long length;
+    synchronized (this) {
+      length = cached.remove(key);
+      if (length != null) {
+        cachedBytes -= length;
+      }
+    }
+    if (length != null) {
+      FileUtil.fullyDelete(new File(dir, key));
+    }
+  }
+
+  private synchronized void admit(String key, ReplicaInfo info) {
+    if (loading.contains(key) || info.getNumBytes() > capacity) {
+      return;
+    }
+    int reads = readCounts.getOrDefault(key, 0) + 1;
+    if (reads < admissionReads) {
+      readCounts.put(key, reads);
+      return;
+    }
+    readCounts.remove(key);
+    loading.add(key);
+    try {
+      loader.execute(() -> load(key, info));
+    } catch (RejectedExecutionException e) {
+      loading.remove(key);
+    }
+  }
+
+  /** Copy the block file of the replica into the cache. */
+  private void load(String key, ReplicaInfo info) {
+    final File tmp = new File(dir, key + ".tmp");
+    final File copy = new File(dir, key);
+    final long length = info.getNumBytes();
+    boolean success = false;
+    try (InputStream in = info.getDataInputStream(0)) {
+      Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      if (tmp.length() != length) {
+        throw new IOException("Copied " + tmp.length() + " bytes of " + info
+            + " instead of " + length);
+      }
+      verifyChecksum(tmp, info);
+      Files.move(tmp.toPath(), copy.toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+      success = true;
+    } catch (IOException e) {
+      LOG.warn("Failed to cache {}", info, e);
+    } finally {
+      FileUtil.fullyDelete(tmp);
+    }
+    final List<String> evicted = new ArrayList<>();
+    synchronized (this) {
+      if (!loading.remove(key)) {
+        // The replica was invalidated while it was copied.
+        evicted.add(key);
+      } else if (success) {
+        cached.put(key, length);
+        cachedBytes += length;
+        metrics.incrReadCacheAdmissions();
+        Iterator<Map.Entry<String, Long>> it = cached.entrySet().iterator();
+        while (cachedBytes > capacity && it.hasNext()) {
+          Map.Entry<String, Long> eldest = it.next();
+          cachedBytes -= eldest.getValue();
+          evicted.add(eldest.getKey());
+          it.remove();
+          metrics.incrReadCacheEvictions();
+        }
+      }
+    }
+    // Delete outside the lock, so reads do not wait for the I/O. Readers of
+    // an evicted copy keep reading from their open stream.
+    for (String victim : evicted) {
+      FileUtil.fullyDelete(new File(dir, victim));
+    }
+  }
+
+  /**
+   * Verify a copy against the checksums in the meta file of its replica, so
+   * that a copy corrupted on the cache device is never served.
+   */
+  private static void verifyChecksum(File copy, ReplicaInfo info)
+      throws IOException {
+    try (DataInputStream metaIn = new DataInputStream(new BufferedInputStream(
+             info.getMetadataInputStream(0)));
+         InputStream blockIn = new FileInputStream(copy)) {
+      final DataChecksum checksum =
+          BlockMetadataHeader.readDataChecksum(metaIn, info);
+      final int bytesPerChecksum = checksum.getBytesPerChecksum();
+      final int checksumSize = checksum.getChecksumSize();
+      final int numChunks = Math.max(1, VERIFY_BUFFER_SIZE / bytesPerChecksum);
+      final byte[] blockBuf = new byte[numChunks * bytesPerChecksum];
+      final byte[] checksumBuf = new byte[numChunks * checksumSize];
+      final long length = copy.length();
+      long bytesVerified = 0;
+      while (bytesVerified < length) {
+        final int bytesRead =
+            (int) Math.min(blockBuf.length, length - bytesVerified);
+        IOUtils.readFully(blockIn, blockBuf, 0, bytesRead);
+        // Number of read chunks, including partial chunk at end
+        final int chunks =
+            (bytesRead + bytesPerChecksum - 1) / bytesPerChecksum;
+        IOUtils.readFully(metaIn, checksumBuf, 0, chunks * checksumSize);
+        checksum.verifyChunkedSums(ByteBuffer.wrap(blockBuf, 0, bytesRead),
+            ByteBuffer.wrap(checksumBuf, 0, chunks * checksumSize),
+            copy.getPath(), bytesVerified);
+        bytesVerified += bytesRead;
+      }
+    }
+  }
+
+  void shutdown() {
+    loader.shutdownNow();
+  }
+
+  @VisibleForTesting
+  synchronized long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumCached() {
+    return cached.size();
+  }
+}
@@ -106,9 +106,31 @@ public class DataNodeMetrics {
   @Metric("Count of network errors on the datanode")
   MutableCounterLong datanodeNetworkErrors;
 
+  @Metric("Time to scan the volumes and diff them against the replica map")
+  MutableRate directoryScan;
+  @Metric("Count of block files visited by the directory scanner")
+  MutableCounterLong directoryScanBlocks;
+  @Metric("Count of differences found by the directory scanner")
+  MutableCounterLong directoryScanDifferences;
+
+  @Metric("Count of block reads served from the read cache")
+  MutableCounterLong readCacheHits;
+  @Metric("Count of cacheable block reads not served from the read cache")
+  MutableCounterLong readCacheMisses;
+  @Metric("Count of blocks copied into the read cache")
+  MutableCounterLong readCacheAdmissions;
+  @Metric("Count of blocks evicted from the read cache")
+  MutableCounterLong readCacheEvictions;
+
   @Metric("Count of active dataNode xceivers")
   private MutableGaugeInt dataNodeActiveXceiversCount;
 
+  @Metric("Count of connections rejected for exceeding the xceiver limit")
+  MutableCounterLong dataNodeXceiversRejected;
+
+  @Metric("Time waiting for a free xceiver slot")
+  MutableRate dataNodeXceiverSlotWait;
+
   @Metric("Count of active DataNode packetResponder")
   private MutableGaugeInt dataNodePacketResponderCount;
 
@@ -139,6 +161,12 @@ public class DataNodeMetrics {
   final MutableQuantiles[] sendDataPacketBlockedOnNetworkNanosQuantiles;
   @Metric MutableRate sendDataPacketTransferNanos;
   final MutableQuantiles[] sendDataPacketTransferNanosQuantiles;
+  @Metric MutableRate receivePacketMirrorNanos;
+  final MutableQuantiles[] receivePacketMirrorNanosQuantiles;
+  @Metric MutableRate receivePacketVerifyNanos;
+  final MutableQuantiles[] receivePacketVerifyNanosQuantiles;
+  @Metric MutableRate receivePacketWriteNanos;
+  final MutableQuantiles[] receivePacketWriteNanosQuantiles;
 
   @Metric("Count of blocks in pending IBR")
   private MutableGaugeLong blocksInPendingIBR;
@@ -150,6 +178,8 @@ public class DataNodeMetrics {
   private MutableGaugeLong blocksDeletedInPendingIBR;
   @Metric("Count of erasure coding reconstruction tasks")
   MutableCounterLong ecReconstructionTasks;
+  @Metric("Count of erasure coding reconstruction tasks waiting to run")
+  private MutableGaugeInt ecReconstructionQueuedTasks;
   @Metric("Count of erasure coding failed reconstruction tasks")
   MutableCounterLong ecFailedReconstructionTasks;
   @Metric("Count of erasure coding invalidated reconstruction tasks")
@@ -223,6 +253,9 @@ public class DataNodeMetrics {
     fsyncNanosQuantiles = new MutableQuantiles[len];
     sendDataPacketBlockedOnNetworkNanosQuantiles = new MutableQuantiles[len];
     sendDataPacketTransferNanosQuantiles = new MutableQuantiles[len];
+    receivePacketMirrorNanosQuantiles = new MutableQuantiles[len];
+    receivePacketVerifyNanosQuantiles = new MutableQuantiles[len];
+    receivePacketWriteNanosQuantiles = new MutableQuantiles[len];
     ramDiskBlocksEvictionWindowMsQuantiles = new MutableQuantiles[len];
     ramDiskBlocksLazyPersistWindowMsQuantiles = new MutableQuantiles[len];
 
@@ -245,6 +278,18 @@ public class DataNodeMetrics {
           "sendDataPacketTransferNanos" + interval + "s", 
           "Time reading from disk and writing to network while sending " +
           "a packet in ns", "ops", "latency", interval);
+      receivePacketMirrorNanosQuantiles[i] = registry.newQuantiles(
+          "receivePacketMirrorNanos" + interval + "s",
+          "Time writing a received packet to the mirror in ns",
+          "ops", "latency", interval);
+      receivePacketVerifyNanosQuantiles[i] = registry.newQuantiles(
+          "receivePacketVerifyNanos" + interval + "s",
+          "Time verifying the checksums of a received packet in ns",
+          "ops", "latency", interval);
+      receivePacketWriteNanosQuantiles[i] = registry.newQuantiles(
+          "receivePacketWriteNanos" + interval + "s",
+          "Time writing a received packet to disk in ns",
+          "ops", "latency", interval);
       ramDiskBlocksEvictionWindowMsQuantiles[i] = registry.newQuantiles(
           "ramDiskBlocksEvictionWindows" + interval + "s",
           "Time between the RamDisk block write and eviction in ms",
@@ -463,6 +508,27 @@ public class DataNodeMetrics {
     }
   }
 
+  public void addReceivePacketMirrorNanos(long latencyNanos) {
+    receivePacketMirrorNanos.add(latencyNanos);
+    for (MutableQuantiles q : receivePacketMirrorNanosQuantiles) {
+      q.add(latencyNanos);
+    }
+  }
+
+  public void addReceivePacketVerifyNanos(long latencyNanos) {
+    receivePacketVerifyNanos.add(latencyNanos);
+    for (MutableQuantiles q : receivePacketVerifyNanosQuantiles) {
+      q.add(latencyNanos);
+    }
+  }
+
+  public void addReceivePacketWriteNanos(long latencyNanos) {
+    receivePacketWriteNanos.add(latencyNanos);
+    for (MutableQuantiles q : receivePacketWriteNanosQuantiles) {
+      q.add(latencyNanos);
+    }
+  }
+
   public void incrRamDiskBlocksWrite() {
     ramDiskBlocksWrite.incr();
   }
@@ -543,6 +609,18 @@ public class DataNodeMetrics {
     ecReconstructionTasks.incr();
   }
 
+  public void incrECReconstructionQueuedTasks() {
+    ecReconstructionQueuedTasks.incr();
+  }
+
+  public void decrECReconstructionQueuedTasks() {
+    ecReconstructionQueuedTasks.decr();
+  }
+
+  public int getECReconstructionQueuedTasks() {
+    return ecReconstructionQueuedTasks.value();
+  }
+
   public void incrECFailedReconstructionTasks() {
     ecFailedReconstructionTasks.incr();
   }
@@ -571,6 +649,37 @@ public class DataNodeMetrics {
     return dataNodeActiveXceiversCount.value();
   }
 
+  public void addDirectoryScan(long latencyMs, long blocks,
+      long differences) {
+    directoryScan.add(latencyMs);
+    directoryScanBlocks.incr(blocks);
+    directoryScanDifferences.incr(differences);
+  }
+
+  public void incrReadCacheHits() {
+    readCacheHits.incr();
+  }
+
+  public void incrReadCacheMisses() {
+    readCacheMisses.incr();
+  }
+
+  public void incrReadCacheAdmissions() {
+    readCacheAdmissions.incr();
+  }
+
+  public void incrReadCacheEvictions() {
+    readCacheEvictions.incr();
+  }
+
+  public void incrDataNodeXceiversRejected() {
+    dataNodeXceiversRejected.incr();
+  }
+
+  public void addDataNodeXceiverSlotWait(long latencyMs) {
+    dataNodeXceiverSlotWait.add(latencyMs);
+  }
+
   public void incrDataNodePacketResponderCount() {
     dataNodePacketResponderCount.incr();
   }
@@ -46,6 +46,7 @@ public class ContentSummaryComputationContext {
   private long yieldCount = 0;
   private long sleepMilliSec = 0;
   private int sleepNanoSec = 0;
+  private QuotaCounts cachedQuotaCounts = null;
 
   public static final String REPLICATED = "Replicated";
   public static final Logger LOG = LoggerFactory
@@ -145,6 +146,23 @@ public class ContentSummaryComputationContext {
     return true;
   }
 
+  /**
+   * Take the usage of directories with a quota from the usage cached in their
+   * quota feature instead of traversing them. The cached usage is collected
+   * in {@link #getCachedQuotaCounts()}, apart from the content counts.
+   */
+  void useCachedQuotaUsage() {
+    cachedQuotaCounts = new QuotaCounts.Builder().build();
+  }
+
+  /**
+   * @return the cached usage of the directories with a quota, or null if
+   *         {@link #useCachedQuotaUsage()} was not called.
+   */
+  QuotaCounts getCachedQuotaCounts() {
+    return cachedQuotaCounts;
+  }
+
   /** Get the content counts */
   public ContentCounts getCounts() {
     return counts;
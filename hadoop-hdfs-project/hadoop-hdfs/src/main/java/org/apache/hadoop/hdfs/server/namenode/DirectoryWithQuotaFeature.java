@@ -18,6 +18,7 @@
 package org.apache.hadoop.hdfs.server.namenode;
 
 import org.apache.hadoop.fs.StorageType;
+import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.hdfs.protocol.DSQuotaExceededException;
 import org.apache.hadoop.hdfs.protocol.HdfsConstants;
 import org.apache.hadoop.hdfs.protocol.NSQuotaExceededException;
@@ -123,6 +124,20 @@ public final class DirectoryWithQuotaFeature implements INode.Feature {
     return summary;
   }
 
+  /**
+   * Add the cached usage of the directory to the summary instead of
+   * traversing it.
+   */
+  ContentSummaryComputationContext addCachedUsage(final INodeDirectory dir,
+      final ContentSummaryComputationContext summary)
+      throws AccessControlException {
+    // throws exception if failing the permission check
+    summary.checkPermission(dir, Snapshot.CURRENT_STATE_ID,
+        FsAction.READ_EXECUTE);
+    summary.getCachedQuotaCounts().add(usage);
+    return summary;
+  }
+
   private void checkStoragespace(final INodeDirectory dir, final long computed) {
     if (-1 != quota.getStorageSpace() && usage.getStorageSpace() != computed) {
       NameNode.LOG.warn("BUG: Inconsistent storagespace for directory "
@@ -50,6 +50,7 @@ class FSDirAclOp {
       List<AclEntry> newAcl = AclTransformation.mergeAclEntries(
           existingAcl, aclSpec);
       AclStorage.updateINodeAcl(inode, newAcl, snapshotId);
+      fsd.invalidateTraverseAccess(inode);
       fsd.getEditLog().logSetAcl(src, newAcl);
     } catch (AclException e){
       throw new AclException(e.getMessage() + " Path: " + src, e);
@@ -76,6 +77,7 @@ class FSDirAclOp {
       List<AclEntry> newAcl = AclTransformation.filterAclEntriesByAclSpec(
         existingAcl, aclSpec);
       AclStorage.updateINodeAcl(inode, newAcl, snapshotId);
+      fsd.invalidateTraverseAccess(inode);
       fsd.getEditLog().logSetAcl(src, newAcl);
     } catch (AclException e){
       throw new AclException(e.getMessage() + " Path: " + src, e);
@@ -101,6 +103,7 @@ class FSDirAclOp {
       List<AclEntry> newAcl = AclTransformation.filterDefaultAclEntries(
         existingAcl);
       AclStorage.updateINodeAcl(inode, newAcl, snapshotId);
+      fsd.invalidateTraverseAccess(inode);
       fsd.getEditLog().logSetAcl(src, newAcl);
     } catch (AclException e){
       throw new AclException(e.getMessage() + " Path: " + src, e);
@@ -194,6 +197,7 @@ class FSDirAclOp {
       newAcl = AclTransformation.replaceAclEntries(existingAcl, aclSpec);
     }
     AclStorage.updateINodeAcl(inode, newAcl, snapshotId);
+    fsd.invalidateTraverseAccess(inode);
     return newAcl;
   }
 
@@ -239,5 +243,6 @@ class FSDirAclOp {
     }
 
     inode.removeAclFeature(snapshotId);
+    fsd.invalidateTraverseAccess(inode);
   }
 }
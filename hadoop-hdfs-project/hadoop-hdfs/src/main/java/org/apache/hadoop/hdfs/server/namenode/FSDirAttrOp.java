@@ -279,6 +279,7 @@ public class FSDirAttrOp {
     int snapshotId = iip.getLatestSnapshotId();
     long oldPerm = inode.getPermissionLong();
     inode.setPermission(permissions, snapshotId);
+    fsd.invalidateTraverseAccess(inode);
     return oldPerm != inode.getPermissionLong();
   }
 
@@ -295,6 +296,7 @@ public class FSDirAttrOp {
     if (groupname != null) {
       inode.setGroup(groupname, iip.getLatestSnapshotId());
     }
+    fsd.invalidateTraverseAccess(inode);
     return oldPerm != inode.getPermissionLong();
   }
 
@@ -548,12 +548,54 @@ class FSDirStatAndListingOp {
     QuotaUsage usage = getQuotaUsageInt(fsd, iip);
     if (usage != null) {
       return usage;
+    } else if (fsd.isQuotaUsageFromCachedSubtrees()) {
+      return computeQuotaUsage(fsd, pc, iip);
     } else {
       //If quota isn't set, fall back to getContentSummary.
       return getContentSummaryInt(fsd, pc, iip);
     }
   }
 
+  /**
+   * Compute the quota usage of a path without a quota. Subdirectories with a
+   * quota contribute the usage cached in their quota feature, so only the
+   * parts of the tree outside of quota directories are traversed. As for a
+   * content summary, the traversal checks the permission of every directory
+   * it visits and relinquishes the locks periodically.
+   */
+  private static QuotaUsage computeQuotaUsage(FSDirectory fsd,
+      FSPermissionChecker pc, INodesInPath iip) throws IOException {
+    fsd.readLock();
+    try {
+      INode targetNode = iip.getLastINode();
+      if (targetNode == null) {
+        throw new FileNotFoundException(
+            "File/Directory does not exist: " + iip.getPath());
+      }
+      ContentSummaryComputationContext cscc =
+          new ContentSummaryComputationContext(fsd, fsd.getFSNamesystem(),
+              fsd.getContentCountLimit(), fsd.getContentSleepMicroSec(), pc);
+      cscc.useCachedQuotaUsage();
+      targetNode.computeContentSummary(iip.getPathSnapshotId(), cscc);
+      fsd.addYieldCount(cscc.getYieldCount());
+      final ContentCounts counts = cscc.getCounts();
+      final QuotaCounts cached = cscc.getCachedQuotaCounts();
+      final long[] typeConsumed = counts.getTypeSpaces();
+      final long[] cachedTypeConsumed = cached.getTypeSpaces().asArray();
+      for (int i = 0; i < typeConsumed.length; i++) {
+        typeConsumed[i] += cachedTypeConsumed[i];
+      }
+      return new QuotaUsage.Builder().
+          fileAndDirectoryCount(counts.getFileCount()
+              + counts.getSymlinkCount() + counts.getDirectoryCount()
+              + cached.getNameSpace()).
+          spaceConsumed(counts.getStoragespace() + cached.getStorageSpace()).
+          typeConsumed(typeConsumed).build();
+    } finally {
+      fsd.readUnlock();
+    }
+  }
+
   private static QuotaUsage getQuotaUsageInt(FSDirectory fsd, INodesInPath iip)
     throws IOException {
     fsd.readLock();
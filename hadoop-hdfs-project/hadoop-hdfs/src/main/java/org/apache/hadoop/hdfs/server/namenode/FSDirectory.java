@@ -159,9 +159,12 @@ public class FSDirectory implements Closeable {
   private final int lsLimit;  // max list limit
   private final int contentCountLimit; // max content summary counts per run
   private final long contentSleepMicroSec;
+  private final boolean quotaUsageFromCachedSubtrees;
   private final INodeMap inodeMap; // Synchronized by dirLock
   private long yieldCount = 0; // keep track of lock yield count.
   private int quotaInitThreads;
+  /** Cached traverse permission grants, null unless explicitly enabled. */
+  private final TraverseAccessCache traverseAccessCache;
 
   private final int inodeXAttrsLimit; //inode xattrs max limit
 
@@ -371,6 +374,9 @@ public class FSDirectory implements Closeable {
     this.contentSleepMicroSec = conf.getLong(
         DFSConfigKeys.DFS_CONTENT_SUMMARY_SLEEP_MICROSEC_KEY,
         DFSConfigKeys.DFS_CONTENT_SUMMARY_SLEEP_MICROSEC_DEFAULT);
+    this.quotaUsageFromCachedSubtrees = conf.getBoolean(
+        DFSConfigKeys.DFS_NAMENODE_QUOTA_USAGE_CACHED_SUBTREES_KEY,
+        DFSConfigKeys.DFS_NAMENODE_QUOTA_USAGE_CACHED_SUBTREES_DEFAULT);
     
     // filesystem limits
     this.maxComponentLength = (int) conf.getLongBytes(
@@ -414,6 +420,12 @@ public class FSDirectory implements Closeable {
         DFSConfigKeys.DFS_NAMENODE_QUOTA_INIT_THREADS_KEY,
         DFSConfigKeys.DFS_NAMENODE_QUOTA_INIT_THREADS_DEFAULT);
 
+    final int traverseAccessCacheSize = conf.getInt(
+        DFSConfigKeys.DFS_NAMENODE_TRAVERSE_ACCESS_CACHE_SIZE_KEY,
+        DFSConfigKeys.DFS_NAMENODE_TRAVERSE_ACCESS_CACHE_SIZE_DEFAULT);
+    this.traverseAccessCache = traverseAccessCacheSize > 0 ?
+        new TraverseAccessCache(traverseAccessCacheSize) : null;
+
     initUsersToBypassExtProvider(conf);
   }
 
@@ -642,6 +654,10 @@ public class FSDirectory implements Closeable {
     return contentSleepMicroSec;
   }
 
+  boolean isQuotaUsageFromCachedSubtrees() {
+    return quotaUsageFromCachedSubtrees;
+  }
+
   int getInodeXAttrsLimit() {
     return inodeXAttrsLimit;
   }
@@ -1590,6 +1606,10 @@ public class FSDirectory implements Closeable {
       addToInodeMap(rootDir);
       nameCache.reset();
       inodeId.setCurrentValue(INodeId.LAST_RESERVED_ID);
+      if (traverseAccessCache != null) {
+        // INode ids are handed out again after a reset.
+        traverseAccessCache.clear();
+      }
     } finally {
       writeUnlock();
     }
@@ -1869,7 +1889,22 @@ public class FSDirectory implements Closeable {
       UserGroupInformation ugi) throws AccessControlException {
     return new FSPermissionChecker(
         fsOwner, superGroup, ugi, getUserFilteredAttributeProvider(ugi),
-        useAuthorizationWithContextAPI);
+        useAuthorizationWithContextAPI, traverseAccessCache);
+  }
+
+  /**
+   * Drop the cached traverse permission of an INode whose permission, ACL,
+   * owner or group changed.
+   */
+  void invalidateTraverseAccess(INode inode) {
+    if (traverseAccessCache != null) {
+      traverseAccessCache.invalidate(inode.getId());
+    }
+  }
+
+  @VisibleForTesting
+  TraverseAccessCache getTraverseAccessCache() {
+    return traverseAccessCache;
   }
 
   void checkOwner(FSPermissionChecker pc, INodesInPath iip)
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -57,6 +58,14 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
 
   private long lastFull = 0;
 
+  // group commit window and batch size limit, see
+  // DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_WINDOW.
+  private final long syncWindowNanos;
+  private final int syncMaxBatch;
+  // only accessed by syncing thread. time the first edit of the current
+  // batch was added to syncWaitQ.
+  private long syncWaitStartNanos;
+
   FSEditLogAsync(Configuration conf, NNStorage storage, List<URI> editsDirs) {
     super(conf, storage, editsDirs);
     // op instances cannot be shared due to queuing for background thread.
@@ -67,6 +76,13 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
             DFS_NAMENODE_EDITS_ASYNC_LOGGING_PENDING_QUEUE_SIZE_DEFAULT);
 
     editPendingQ = new ArrayBlockingQueue<>(editPendingQSize);
+    syncWindowNanos = conf.getTimeDuration(
+        DFSConfigKeys.DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_WINDOW,
+        DFSConfigKeys.DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_WINDOW_DEFAULT,
+        TimeUnit.MICROSECONDS, TimeUnit.NANOSECONDS);
+    syncMaxBatch = conf.getInt(
+        DFSConfigKeys.DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_MAX_BATCH,
+        DFSConfigKeys.DFS_NAMENODE_EDITS_ASYNC_LOGGING_SYNC_MAX_BATCH_DEFAULT);
   }
 
   private boolean isSyncThreadAlive() {
@@ -196,6 +212,7 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
     if (LOG.isDebugEnabled()) {
       LOG.debug("logEdit " + edit);
     }
+    edit.enqueueTimeNanos = Time.monotonicNowNanos();
     try {
       // not checking for overflow yet to avoid penalizing performance of
       // the common case.  if there is persistent overflow, a mutex will be
@@ -238,7 +255,21 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
 
   private Edit dequeueEdit() throws InterruptedException {
     // only block for next edit if no pending syncs.
-    return syncWaitQ.isEmpty() ? editPendingQ.take() : editPendingQ.poll();
+    if (syncWaitQ.isEmpty()) {
+      return editPendingQ.take();
+    }
+    Edit edit = editPendingQ.poll();
+    if (edit == null && syncWindowNanos > 0 &&
+        syncWaitQ.size() < syncMaxBatch) {
+      // group commit: let more edits join the pending sync until the
+      // window, which starts with the first edit of the batch, closes.
+      long remaining = syncWindowNanos -
+          (Time.monotonicNowNanos() - syncWaitStartNanos);
+      if (remaining > 0) {
+        edit = editPendingQ.poll(remaining, TimeUnit.NANOSECONDS);
+      }
+    }
+    return edit;
   }
 
   @Override
@@ -249,8 +280,14 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
         boolean doSync;
         Edit edit = dequeueEdit();
         if (edit != null) {
+          long now = Time.monotonicNowNanos();
+          metrics.addEditLogQueueWait(
+              TimeUnit.NANOSECONDS.toMicros(now - edit.enqueueTimeNanos));
           // sync if requested by edit log.
           doSync = edit.logEdit();
+          if (syncWaitQ.isEmpty()) {
+            syncWaitStartNanos = now;
+          }
           syncWaitQ.add(edit);
           metrics.setPendingEditsCount(editPendingQ.size() + 1);
         } else {
@@ -300,6 +337,9 @@ class FSEditLogAsync extends FSEditLog implements Runnable {
   private abstract static class Edit {
     final FSEditLog log;
     final FSEditLogOp op;
+    // set by the enqueuing thread, read by the syncing thread after the
+    // edit is handed over through the pending queue.
+    long enqueueTimeNanos;
 
     Edit(FSEditLog log, FSEditLogOp op) {
       this.log = log;
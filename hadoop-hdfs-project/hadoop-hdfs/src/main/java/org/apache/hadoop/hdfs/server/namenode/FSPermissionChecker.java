@@ -37,6 +37,7 @@ import org.apache.hadoop.hdfs.DFSUtil;
 import org.apache.hadoop.hdfs.protocol.UnresolvedPathException;
 import org.apache.hadoop.hdfs.server.namenode.INodeAttributeProvider.AccessControlEnforcer;
 import org.apache.hadoop.hdfs.server.namenode.INodeAttributeProvider.AuthorizationContext;
+import org.apache.hadoop.hdfs.server.namenode.snapshot.Snapshot;
 import org.apache.hadoop.hdfs.util.ReadOnlyList;
 import org.apache.hadoop.security.AccessControlException;
 import org.apache.hadoop.security.UserGroupInformation;
@@ -87,6 +88,7 @@ public class FSPermissionChecker implements AccessControlEnforcer {
   private final boolean isSuper;
   private final INodeAttributeProvider attributeProvider;
   private final boolean authorizeWithContext;
+  private final TraverseAccessCache traverseAccessCache;
 
   private static ThreadLocal<String> operationType = new ThreadLocal<>();
 
@@ -100,6 +102,15 @@ public class FSPermissionChecker implements AccessControlEnforcer {
       UserGroupInformation callerUgi,
       INodeAttributeProvider attributeProvider,
       boolean useAuthorizationWithContextAPI) {
+    this(fsOwner, supergroup, callerUgi, attributeProvider,
+        useAuthorizationWithContextAPI, null);
+  }
+
+  FSPermissionChecker(String fsOwner, String supergroup,
+      UserGroupInformation callerUgi,
+      INodeAttributeProvider attributeProvider,
+      boolean useAuthorizationWithContextAPI,
+      TraverseAccessCache traverseAccessCache) {
     this.fsOwner = fsOwner;
     this.supergroup = supergroup;
     this.callerUgi = callerUgi;
@@ -107,6 +118,9 @@ public class FSPermissionChecker implements AccessControlEnforcer {
     user = callerUgi.getShortUserName();
     isSuper = user.equals(fsOwner) || groups.contains(supergroup);
     this.attributeProvider = attributeProvider;
+    // Attributes from a provider may depend on more than the INode itself.
+    this.traverseAccessCache =
+        attributeProvider == null ? traverseAccessCache : null;
 
     if (attributeProvider == null) {
       // If attribute provider is null, use FSPermissionChecker default
@@ -387,7 +401,8 @@ public class FSPermissionChecker implements AccessControlEnforcer {
         ancestorIndex--);
 
     try {
-      checkTraverse(inodeAttrs, inodes, components, ancestorIndex);
+      checkTraverse(inodeAttrs, inodes, components, ancestorIndex,
+          snapshotId);
     } catch (UnresolvedPathException | ParentNotDirectoryException ex) {
       // must tunnel these exceptions out to avoid breaking interface for
       // external enforcer
@@ -472,11 +487,20 @@ public class FSPermissionChecker implements AccessControlEnforcer {
    * @throws UnresolvedPathException
    */
   private void checkTraverse(INodeAttributes[] inodeAttrs, INode[] inodes,
-      byte[][] components, int last) throws AccessControlException,
-          UnresolvedPathException, ParentNotDirectoryException {
+      byte[][] components, int last, int snapshotId)
+      throws AccessControlException, UnresolvedPathException,
+          ParentNotDirectoryException {
+    // Snapshot copies of the attributes are not cached.
+    final TraverseAccessCache cache =
+        snapshotId == Snapshot.CURRENT_STATE_ID ? traverseAccessCache : null;
     for (int i=0; i <= last; i++) {
       checkIsDirectory(inodes[i], components, i);
-      check(inodeAttrs, components, i, FsAction.EXECUTE);
+      if (cache == null || inodes[i] == null) {
+        check(inodeAttrs, components, i, FsAction.EXECUTE);
+      } else if (!cache.isTraversable(inodes[i].getId(), user, groups)) {
+        check(inodeAttrs, components, i, FsAction.EXECUTE);
+        cache.addTraversable(inodes[i].getId(), user, groups);
+      }
     }
   }
 
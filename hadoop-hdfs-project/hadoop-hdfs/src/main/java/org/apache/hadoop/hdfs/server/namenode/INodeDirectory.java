@@ -686,6 +686,12 @@ public class INodeDirectory extends INodeWithAdditionalFields
   @Override
   public ContentSummaryComputationContext computeContentSummary(int snapshotId,
       ContentSummaryComputationContext summary) throws AccessControlException {
+    final DirectoryWithQuotaFeature q = getDirectoryWithQuotaFeature();
+    if (q != null && snapshotId == Snapshot.CURRENT_STATE_ID
+        && summary.getCachedQuotaCounts() != null) {
+      // the cached usage already includes the snapshot data
+      return q.addCachedUsage(this, summary);
+    }
     final DirectoryWithSnapshotFeature sf = getDirectoryWithSnapshotFeature();
     if (sf != null && snapshotId == Snapshot.CURRENT_STATE_ID) {
       final ContentCounts counts = new ContentCounts.Builder().build();
@@ -698,7 +704,6 @@ public class INodeDirectory extends INodeWithAdditionalFields
       // later from the ContentSummary of all).
       summary.getSnapshotCounts().addContents(counts);
     }
-    final DirectoryWithQuotaFeature q = getDirectoryWithQuotaFeature();
     if (q != null && snapshotId == Snapshot.CURRENT_STATE_ID) {
       return q.computeContentSummary(this, summary);
     } else {
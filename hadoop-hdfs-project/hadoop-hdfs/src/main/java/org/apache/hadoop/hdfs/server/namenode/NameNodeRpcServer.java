@@ -1627,7 +1627,7 @@ public class NameNodeRpcServer implements NamenodeProtocols {
           // call of this loop is the final updated value for noStaleStorage.
           //
           final int index = r;
-          noStaleStorages = bm.runBlockOp(() ->
+          noStaleStorages = bm.runFullBlockReportOp(() ->
             bm.processReport(nodeReg, reports[index].getStorage(),
                 blocks, context));
         }
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdfs.server.namenode;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.classification.VisibleForTesting;
+import org.apache.hadoop.hdfs.server.namenode.metrics.NameNodeMetrics;
+
+/**
+ * Remembers which users were granted EXECUTE on a directory, so that the
+ * traverse check of deep paths does not evaluate the permission bits and ACL
+ * of every ancestor on each call.
+ * <p>
+ * Only grants are cached. A grant depends on nothing but the permission, ACL,
+ * owner and group of the directory itself and on the groups of the user, so
+ * it stays valid when the directory is renamed; it is dropped when the
+ * attributes of the directory change and is ignored once the groups of the
+ * user differ from the groups it was granted with. Entries are added under
+ * the namesystem read lock and invalidated under the write lock, so no stale
+ * grant can be added after its invalidation. The cache is cleared when it
+ * grows beyond its maximum number of directories.
+ */
+class TraverseAccessCache {
+  private final int maxSize;
+  /** Directory INode id to the users, and their groups, granted EXECUTE. */
+  private final Map<Long, Map<String, Collection<String>>> grants =
+      new ConcurrentHashMap<>();
+
+  TraverseAccessCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return whether the user with the given groups is known to have EXECUTE
+   *         permission on the directory.
+   */
+  boolean isTraversable(long inodeId, String user,
+      Collection<String> groups) {
+    final Map<String, Collection<String>> users = grants.get(inodeId);
+    final Collection<String> granted = users == null ? null : users.get(user);
+    final boolean hit = granted != null &&
+        (granted == groups || granted.equals(groups));
+    final NameNodeMetrics metrics = NameNode.getNameNodeMetrics();
+    if (metrics != null) {
+      if (hit) {
+        metrics.incrTraverseAccessCacheHits();
+      } else {
+        metrics.incrTraverseAccessCacheMisses();
+      }
+    }
+    return hit;
+  }
+
+  /** Record that the user was granted EXECUTE on the directory. */
+  void addTraversable(long inodeId, String user, Collection<String> groups) {
+    if (grants.size() >= maxSize) {
+      grants.clear();
+    }
+    grants.computeIfAbsent(inodeId, id -> new ConcurrentHashMap<>(4))
+        .put(user, groups);
+  }
+
+  /** Drop the grants of a directory whose attributes changed. */
+  void invalidate(long inodeId) {
+    grants.remove(inodeId);
+  }
+
+  void clear() {
+    grants.clear();
+  }
+
+  @VisibleForTesting
+  int size() {
+    return grants.size();
+  }
+}
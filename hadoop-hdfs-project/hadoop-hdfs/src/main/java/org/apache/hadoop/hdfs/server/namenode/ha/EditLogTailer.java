@@ -53,6 +53,7 @@ import org.apache.hadoop.hdfs.server.namenode.FSImage;
 import org.apache.hadoop.hdfs.server.namenode.FSNamesystem;
 import org.apache.hadoop.hdfs.server.namenode.NameNode;
 import org.apache.hadoop.hdfs.server.protocol.NamenodeProtocol;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.ipc.RPC;
 import org.apache.hadoop.security.SecurityUtil;
 
@@ -328,34 +329,34 @@ public class EditLogTailer {
   
   @VisibleForTesting
   public long doTailEdits() throws IOException, InterruptedException {
+    // Selecting the streams may need RPCs to the JournalNodes, so do it
+    // before taking the write lock to keep the lock hold time down to
+    // applying the edits. The tailer is the only thread that advances the
+    // last applied txid, and it holds the cpLock against checkpointing.
+    FSImage image = namesystem.getFSImage();
+    long lastTxnId = image.getLastAppliedTxId();
+    Collection<EditLogInputStream> streams = selectInputStreams(lastTxnId);
+
     // Write lock needs to be interruptible here because the 
     // transitionToActive RPC takes the write lock before calling
     // tailer.stop() -- so if we're not interruptible, it will
     // deadlock.
-    namesystem.writeLockInterruptibly();
     try {
-      FSImage image = namesystem.getFSImage();
-
-      long lastTxnId = image.getLastAppliedTxId();
-      
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("lastTxnId: " + lastTxnId);
+      namesystem.writeLockInterruptibly();
+    } catch (InterruptedException ie) {
+      closeStreams(streams);
+      throw ie;
+    }
+    try {
+      if (image.getLastAppliedTxId() != lastTxnId) {
+        // Edits were applied by someone else in the meantime; the selected
+        // streams start at the wrong txid.
+        closeStreams(streams);
+        lastTxnId = image.getLastAppliedTxId();
+        streams = selectInputStreams(lastTxnId);
       }
-      Collection<EditLogInputStream> streams;
-      long startTime = timer.monotonicNow();
-      try {
-        streams = editLog.selectInputStreams(lastTxnId + 1, 0,
-            null, inProgressOk, true);
-      } catch (IOException ioe) {
-        // This is acceptable. If we try to tail edits in the middle of an edits
-        // log roll, i.e. the last one has been finalized but the new inprogress
-        // edits file hasn't been started yet.
-        LOG.warn("Edits tailer failed to find any streams. Will try again " +
-            "later.", ioe);
+      if (streams == null) {
         return 0;
-      } finally {
-        NameNode.getNameNodeMetrics().addEditLogFetchTime(
-            timer.monotonicNow() - startTime);
       }
       if (LOG.isDebugEnabled()) {
         LOG.debug("edit streams to load from: " + streams.size());
@@ -389,6 +390,38 @@ public class EditLogTailer {
     }
   }
 
+  private static void closeStreams(Collection<EditLogInputStream> streams) {
+    if (streams != null) {
+      IOUtils.cleanupWithLogger(LOG,
+          streams.toArray(new EditLogInputStream[0]));
+    }
+  }
+
+  /**
+   * Select the edit streams following the given txid.
+   * @return the streams, or null if none could be found.
+   */
+  private Collection<EditLogInputStream> selectInputStreams(long lastTxnId) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("lastTxnId: " + lastTxnId);
+    }
+    long startTime = timer.monotonicNow();
+    try {
+      return editLog.selectInputStreams(lastTxnId + 1, 0,
+          null, inProgressOk, true);
+    } catch (IOException ioe) {
+      // This is acceptable. If we try to tail edits in the middle of an edits
+      // log roll, i.e. the last one has been finalized but the new inprogress
+      // edits file hasn't been started yet.
+      LOG.warn("Edits tailer failed to find any streams. Will try again " +
+          "later.", ioe);
+      return null;
+    } finally {
+      NameNode.getNameNodeMetrics().addEditLogFetchTime(
+          timer.monotonicNow() - startTime);
+    }
+  }
+
   /**
    * @return time in msec of when we last loaded a non-zero number of edits.
    */
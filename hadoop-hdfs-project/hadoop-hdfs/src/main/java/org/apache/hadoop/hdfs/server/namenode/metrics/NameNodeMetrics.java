@@ -54,6 +54,10 @@ public class NameNodeMetrics {
   @Metric("Number of files/dirs deleted by delete or rename operations")
   MutableCounterLong filesDeleted;
   @Metric MutableCounterLong fileInfoOps;
+  @Metric("Number of traverse checks answered by the traverse access cache")
+  MutableCounterLong traverseAccessCacheHits;
+  @Metric("Number of traverse checks missing the traverse access cache")
+  MutableCounterLong traverseAccessCacheMisses;
   @Metric MutableCounterLong addBlockOps;
   @Metric MutableCounterLong getAdditionalDatanodeOps;
   @Metric MutableCounterLong createSymlinkOps;
@@ -87,8 +91,13 @@ public class NameNodeMetrics {
   MutableGaugeInt blockOpsQueued;
   @Metric("Number of blockReports and blockReceivedAndDeleted batch processed")
   MutableCounterLong blockOpsBatched;
+  @Metric("Number of times full block reports released the write lock")
+  MutableCounterLong blockReportLockYields;
   @Metric("Number of pending edits")
   MutableGaugeInt pendingEditsCount;
+  @Metric("Time edits wait in the pending queue in microseconds")
+  MutableRate editLogQueueWaitMicros;
+  private final MutableQuantiles[] editLogQueueWaitMicrosQuantiles;
   @Metric("Number of delete blocks Queued")
   MutableGaugeInt deleteBlocksQueued;
   @Metric("Number of pending deletion blocks")
@@ -184,6 +193,7 @@ public class NameNodeMetrics {
     editLogFetchTimeQuantiles = new MutableQuantiles[len];
     numEditLogLoadedQuantiles = new MutableQuantiles[len];
     editLogTailIntervalQuantiles = new MutableQuantiles[len];
+    editLogQueueWaitMicrosQuantiles = new MutableQuantiles[len];
 
     for (int i = 0; i < len; i++) {
       int interval = intervals[i];
@@ -221,6 +231,9 @@ public class NameNodeMetrics {
       editLogTailIntervalQuantiles[i] = registry.newQuantiles(
           "editLogTailInterval" + interval + "s",
           "Edit log tailing interval", "ops", "latency", interval);
+      editLogQueueWaitMicrosQuantiles[i] = registry.newQuantiles(
+          "editLogQueueWaitMicros" + interval + "s",
+          "Edit pending queue wait", "ops", "latency", interval);
     }
   }
 
@@ -297,6 +310,14 @@ public class NameNodeMetrics {
     fileInfoOps.incr();
   }
 
+  public void incrTraverseAccessCacheHits() {
+    traverseAccessCacheHits.incr();
+  }
+
+  public void incrTraverseAccessCacheMisses() {
+    traverseAccessCacheMisses.incr();
+  }
+
   public void incrCreateSymlinkOps() {
     createSymlinkOps.incr();
   }
@@ -361,10 +382,21 @@ public class NameNodeMetrics {
     blockOpsBatched.incr(count);
   }
 
+  public void incrBlockReportLockYields() {
+    blockReportLockYields.incr();
+  }
+
   public void setPendingEditsCount(int size) {
     pendingEditsCount.set(size);
   }
 
+  public void addEditLogQueueWait(long micros) {
+    editLogQueueWaitMicros.add(micros);
+    for (MutableQuantiles q : editLogQueueWaitMicrosQuantiles) {
+      q.add(micros);
+    }
+  }
+
   public void addTransaction(long latency) {
     transactions.add(latency);
   }
@@ -34,6 +34,9 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableList;
 import org.apache.hadoop.classification.InterfaceAudience;
@@ -207,6 +210,56 @@ public class FSImageFormatPBSnapshot {
       }
     }
 
+    /**
+     * Load the snapshot diff sub-sections concurrently. Each sub-section holds
+     * the complete diff lists of a disjoint range of inodes; updates of the
+     * blocks map, which is not thread safe, are serialized on this loader.
+     */
+    public void loadSnapshotDiffSectionInParallel(ExecutorService service,
+        ArrayList<FileSummary.Section> sections, String compressionCodec)
+        throws IOException {
+      FSImage.LOG.info("Loading the snapshot diff section in parallel with " +
+          "{} sub-sections", sections.size());
+      CountDownLatch latch = new CountDownLatch(sections.size());
+      final CopyOnWriteArrayList<IOException> exceptions =
+          new CopyOnWriteArrayList<>();
+      for (FileSummary.Section s : sections) {
+        service.submit(() -> {
+          InputStream ins = null;
+          try {
+            ins = parent.getInputStreamForSection(s, compressionCodec);
+            loadSnapshotDiffSection(ins);
+          } catch (Exception e) {
+            FSImage.LOG.error("An exception occurred loading snapshot diffs " +
+                "in parallel", e);
+            exceptions.add(new IOException(e));
+          } finally {
+            latch.countDown();
+            try {
+              if (ins != null) {
+                ins.close();
+              }
+            } catch (IOException ioe) {
+              FSImage.LOG.warn("Failed to close the input stream, ignoring",
+                  ioe);
+            }
+          }
+        });
+      }
+      try {
+        latch.await();
+      } catch (InterruptedException e) {
+        FSImage.LOG.error("Interrupted waiting for countdown latch", e);
+        throw new IOException(e);
+      }
+      if (exceptions.size() != 0) {
+        FSImage.LOG.error("{} exceptions occurred loading snapshot diffs",
+            exceptions.size());
+        throw exceptions.get(0);
+      }
+      FSImage.LOG.info("Completed loading all snapshot diff sub-sections");
+    }
+
     /** Load FileDiff list for a file with snapshot feature */
     private void loadFileDiffList(InputStream in, INodeFile file, int size)
         throws IOException {
@@ -254,15 +307,17 @@ public class FSImageFormatPBSnapshot {
         List<BlockProto> bpl = pbf.getBlocksList();
         // in file diff there can only be contiguous blocks
         BlockInfo[] blocks = new BlockInfo[bpl.size()];
-        for(int j = 0, e = bpl.size(); j < e; ++j) {
-          Block blk = PBHelperClient.convert(bpl.get(j));
-          BlockInfo storedBlock = bm.getStoredBlock(blk);
-          if(storedBlock == null) {
-            storedBlock = (BlockInfoContiguous) fsn.getBlockManager()
-                .addBlockCollectionWithCheck(new BlockInfoContiguous(blk,
-                    copy.getFileReplication()), file);
+        synchronized (this) {
+          for(int j = 0, e = bpl.size(); j < e; ++j) {
+            Block blk = PBHelperClient.convert(bpl.get(j));
+            BlockInfo storedBlock = bm.getStoredBlock(blk);
+            if(storedBlock == null) {
+              storedBlock = (BlockInfoContiguous) fsn.getBlockManager()
+                  .addBlockCollectionWithCheck(new BlockInfoContiguous(blk,
+                      copy.getFileReplication()), file);
+            }
+            blocks[j] = storedBlock;
           }
-          blocks[j] = storedBlock;
         }
         if(blocks.length > 0) {
           diff.setBlocks(blocks);
@@ -271,9 +326,11 @@ public class FSImageFormatPBSnapshot {
       }
       file.addSnapshotFeature(diffs);
       short repl = file.getPreferredBlockReplication();
-      for (BlockInfo b : file.getBlocks()) {
-        if (b.getReplication() < repl) {
-          bm.setReplication(b.getReplication(), repl, b);
+      synchronized (this) {
+        for (BlockInfo b : file.getBlocks()) {
+          if (b.getReplication() < repl) {
+            bm.setReplication(b.getReplication(), repl, b);
+          }
         }
       }
     }
@@ -294,7 +351,9 @@ public class FSImageFormatPBSnapshot {
     private void addToDeletedList(INode dnode, INodeDirectory parent) {
       dnode.setParent(parent);
       if (dnode.isFile()) {
-        updateBlocksMap(dnode.asFile(), fsn.getBlockManager());
+        synchronized (this) {
+          updateBlocksMap(dnode.asFile(), fsn.getBlockManager());
+        }
       }
     }
 
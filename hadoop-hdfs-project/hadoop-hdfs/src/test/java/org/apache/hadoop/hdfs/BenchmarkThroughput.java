@@ -23,6 +23,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,9 +56,10 @@ public class BenchmarkThroughput extends Configured implements Tool {
     startTime = Time.now();
   }
 
-  private void printMeasurements() {
-    System.out.println(" time: " +
-                       ((Time.now() - startTime)/1000));
+  private void printMeasurements(long bytes) {
+    long elapsedMs = Math.max(1, Time.now() - startTime);
+    System.out.println(" time: " + (elapsedMs / 1000) + " throughput: " +
+        (bytes * 1000 / elapsedMs / (1024 * 1024)) + " MB/s");
   }
 
   private Path writeLocalFile(String name, Configuration conf,
@@ -71,7 +73,7 @@ public class BenchmarkThroughput extends Configured implements Tool {
       out.write(data);
     }
     out.close();
-    printMeasurements();
+    printMeasurements(total);
     return path;
   }
 
@@ -82,12 +84,14 @@ public class BenchmarkThroughput extends Configured implements Tool {
     resetMeasurements();
     InputStream in = new FileInputStream(new File(path.toString()));
     byte[] data = new byte[BUFFER_SIZE];
+    long total = 0;
     long size = 0;
     while (size >= 0) {
       size = in.read(data);
+      total += Math.max(0, size);
     }
     in.close();
-    printMeasurements();
+    printMeasurements(total);
   }
 
   private void writeAndReadLocalFile(String name,
@@ -119,7 +123,7 @@ public class BenchmarkThroughput extends Configured implements Tool {
       out.write(data);
     }
     out.close();
-    printMeasurements();
+    printMeasurements(total);
     return f;
   }
 
@@ -132,12 +136,14 @@ public class BenchmarkThroughput extends Configured implements Tool {
     resetMeasurements();
     InputStream in = fs.open(f);
     byte[] data = new byte[BUFFER_SIZE];
+    long total = 0;
     long val = 0;
     while (val >= 0) {
       val = in.read(data);
+      total += Math.max(0, val);
     }
     in.close();
-    printMeasurements();
+    printMeasurements(total);
   }
 
   private void writeAndReadFile(FileSystem fs,
@@ -165,7 +171,9 @@ public class BenchmarkThroughput extends Configured implements Tool {
     System.err.println("Usage: dfsthroughput [#reps]");
     System.err.println("Config properties:\n" +
       "  dfsthroughput.file.size:\tsize of each write/read (10GB)\n" +
-      "  dfsthroughput.buffer.size:\tbuffer size for write/read (4k)\n");
+      "  dfsthroughput.buffer.size:\tbuffer size for write/read (4k)\n" +
+      "  dfsthroughput.datanodes:\tnumber of datanodes, i.e. the\n" +
+      "                          \tlength of the write pipeline (1)\n");
   }
 
   @Override
@@ -190,6 +198,7 @@ public class BenchmarkThroughput extends Configured implements Tool {
     long fileSize = conf.getLong("dfsthroughput.file.size",
         10L * 1024 * 1024 * 1024);
     BUFFER_SIZE = conf.getInt("dfsthroughput.buffer.size", 4 * 1024);
+    int numDataNodes = conf.getInt("dfsthroughput.datanodes", 1);
 
     String localDir = conf.get("mapred.temp.dir");
     if (localDir == null) {
@@ -209,8 +218,10 @@ public class BenchmarkThroughput extends Configured implements Tool {
     }
     MiniDFSCluster cluster = null;
     try {
-      cluster = new MiniDFSCluster.Builder(conf)
-                                  .racks(new String[]{"/foo"}).build();
+      String[] racks = new String[numDataNodes];
+      Arrays.fill(racks, "/foo");
+      cluster = new MiniDFSCluster.Builder(conf).numDataNodes(numDataNodes)
+                                  .racks(racks).build();
       cluster.waitActive();
       FileSystem dfs = cluster.getFileSystem();
       for(int i=0; i < reps; ++i) {
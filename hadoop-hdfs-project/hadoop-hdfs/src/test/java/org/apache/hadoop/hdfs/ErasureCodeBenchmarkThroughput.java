@@ -27,6 +27,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.PathFilter;
 import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
+import org.apache.hadoop.hdfs.client.HdfsDataInputStream;
 import org.apache.hadoop.hdfs.protocol.ErasureCodingPolicy;
 import org.apache.hadoop.util.StopWatch;
 import org.apache.hadoop.util.Tool;
@@ -55,6 +56,8 @@ import java.util.concurrent.TimeUnit;
  * The tool launches 1 thread for each client. Number of client is 1 by default.
  * For reading, users can also specify whether stateful or positional read
  * should be used. Stateful read is chosen by default.
+ * Client options, e.g. dfs.client.read.striped.slow.threshold.millis, can be
+ * passed with -D to compare reads against slow DataNodes.
  * <p/>
  * Each client reads and writes different files.
  * For writing, client writes a temporary file at the desired amount, and the
@@ -390,10 +393,16 @@ public class ErasureCodeBenchmarkThroughput
             "Positional reading ") + path);
         long totalRead = statefulRead ? doStateful(inputStream) :
             doPositional(inputStream);
+        String decodingTime = "";
+        if (inputStream instanceof HdfsDataInputStream) {
+          decodingTime = " EC decoding time: " + ((HdfsDataInputStream)
+              inputStream).getReadStatistics().getTotalEcDecodingTimeMillis()
+              + " ms.";
+        }
         System.out.println(
             (statefulRead ? "Finished stateful read " :
                 "Finished positional read ") + path + ". Time taken: " +
-                sw.now(TimeUnit.SECONDS) + " s.");
+                sw.now(TimeUnit.SECONDS) + " s." + decodingTime);
         return totalRead;
       }
     }
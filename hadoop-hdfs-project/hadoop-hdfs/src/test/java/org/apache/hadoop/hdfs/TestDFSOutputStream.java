@@ -42,6 +42,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.StreamCapabilities.StreamCapability;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.hdfs.DataStreamer.LastExceptionInStreamer;
+import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
 import org.apache.hadoop.hdfs.client.impl.DfsClientConf;
 import org.apache.hadoop.hdfs.protocol.BlockListAsLongs;
 import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
@@ -55,6 +56,7 @@ import org.apache.hadoop.hdfs.server.blockmanagement.DatanodeDescriptor;
 import org.apache.hadoop.hdfs.server.blockmanagement.DatanodeManager;
 import org.apache.hadoop.hdfs.server.protocol.DatanodeStorage;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.apache.hadoop.test.PathUtils;
 import org.apache.hadoop.test.Whitebox;
@@ -74,6 +76,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import static org.junit.Assert.assertEquals;
+import static org.apache.hadoop.test.MetricsAsserts.getLongCounter;
+import static org.apache.hadoop.test.MetricsAsserts.getMetrics;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.doThrow;
@@ -454,6 +458,32 @@ public class TestDFSOutputStream {
     os.close();
   }
 
+  @Test
+  public void testWriteBufferMetrics() throws Exception {
+    Configuration conf = new Configuration();
+    conf.set(HdfsClientConfigKeys.DFS_CLIENT_CONTEXT,
+        "testWriteBufferMetrics");
+    conf.setBoolean(
+        HdfsClientConfigKeys.Write.ByteArrayManager.ENABLED_KEY, true);
+    conf.setInt(
+        HdfsClientConfigKeys.Write.ByteArrayManager.COUNT_THRESHOLD_KEY, 0);
+    try (DistributedFileSystem fs = (DistributedFileSystem) FileSystem
+        .newInstance(cluster.getURI(), conf)) {
+      for (int i = 0; i < 2; i++) {
+        DFSTestUtil.writeFile(fs, new Path("/write-buffer-metrics-" + i),
+            new byte[256 * 1024]);
+      }
+    }
+    MetricsRecordBuilder rb =
+        getMetrics("HdfsClientContext-testWriteBufferMetrics");
+    long allocated = getLongCounter("WriteBufferAllocatedBytes", rb);
+    long recycled = getLongCounter("WriteBufferRecycledBytes", rb);
+    assertTrue(allocated >= 2 * 256 * 1024);
+    assertTrue("packet buffers should be recycled", recycled > 0);
+    assertEquals(allocated - recycled,
+        getLongCounter("WriteBufferNewlyAllocatedBytes", rb));
+  }
+
   @Test
   public void testExceptionInCloseWithRecoverLease() throws Exception {
     Configuration conf = new Configuration();
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -39,6 +40,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.ChecksumException;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileRange;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
@@ -50,6 +52,8 @@ import org.apache.hadoop.hdfs.protocol.datatransfer.DataTransferProtocol;
 import org.apache.hadoop.hdfs.server.datanode.SimulatedFSDataset;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.test.GenericTestUtils;
+import org.apache.hadoop.test.LambdaTestUtils;
+import org.apache.hadoop.util.functional.FutureIO;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -283,6 +287,64 @@ public class TestPread {
     dfsPreadTest(conf, true, false);
   }
   
+  /**
+   * Tests vectored read in DFS.
+   */
+  @Test
+  public void testVectoredReadDFS() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setLong(DFSConfigKeys.DFS_BLOCK_SIZE_KEY, blockSize);
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf)
+        .numDataNodes(1).build();
+    try {
+      FileSystem fileSys = cluster.getFileSystem();
+      Path file = new Path("/vectoredreadtest.dat");
+      DFSTestUtil.createFile(fileSys, file, fileSize, fileSize,
+          blockSize, (short) 1, seed);
+      byte[] expected = new byte[fileSize];
+      List<FileRange> ranges = Arrays.asList(
+          FileRange.createFileRange(5 * blockSize, 1000),
+          FileRange.createFileRange(100, 200),
+          FileRange.createFileRange(300, 100),
+          // Spans two blocks.
+          FileRange.createFileRange(blockSize - 100, 200),
+          FileRange.createFileRange(fileSize - 10, 10),
+          FileRange.createFileRange(1000, 0));
+      try (FSDataInputStream in = fileSys.open(file)) {
+        in.readFully(0, expected);
+        in.readVectored(ranges, ByteBuffer::allocate);
+        for (FileRange range : ranges) {
+          ByteBuffer buffer = FutureIO.awaitFuture(range.getData());
+          byte[] actual = new byte[buffer.remaining()];
+          buffer.get(actual);
+          assertEquals(range.getLength(), actual.length);
+          checkAndEraseData(actual, (int) range.getOffset(), expected,
+              "Vectored read of " + range);
+        }
+
+        List<FileRange> beyondEof = Arrays.asList(
+            FileRange.createFileRange(fileSize - 10, 20));
+        LambdaTestUtils.intercept(EOFException.class,
+            () -> in.readVectored(beyondEof, ByteBuffer::allocate));
+      }
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
+  /**
+   * Tests positional read in DFS, with latency aware hedged reads enabled.
+   */
+  @Test
+  public void testLatencyAwareHedgedPreadDFS() throws IOException {
+    isHedgedRead = true;
+    Configuration conf = new Configuration();
+    conf.setInt(HdfsClientConfigKeys.HedgedRead.THREADPOOL_SIZE_KEY, 5);
+    conf.setLong(HdfsClientConfigKeys.HedgedRead.THRESHOLD_MILLIS_KEY, 100);
+    conf.setBoolean(HdfsClientConfigKeys.HedgedRead.LATENCY_AWARE_KEY, true);
+    dfsPreadTest(conf, false, true);
+  }
+
   /**
    * Tests positional read in DFS, with hedged reads enabled.
    */
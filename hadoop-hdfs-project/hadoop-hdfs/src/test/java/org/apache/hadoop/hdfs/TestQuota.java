@@ -55,6 +55,7 @@ import org.apache.hadoop.hdfs.server.namenode.FSImageTestUtil;
 import org.apache.hadoop.hdfs.tools.DFSAdmin;
 import org.apache.hadoop.hdfs.web.WebHdfsConstants;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.security.AccessControlException;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.apache.hadoop.test.PathUtils;
@@ -1256,6 +1257,70 @@ public class TestQuota {
   }
 
 
+  /**
+   * Test getQuotaUsage of a directory without quota computed from the usage
+   * cached on its subdirectories with quota.
+   */
+  @Test(timeout = 60000)
+  public void testQuotaUsageFromCachedSubtrees() throws Exception {
+    Configuration dfsConf = new HdfsConfiguration();
+    dfsConf.setBoolean(
+        DFSConfigKeys.DFS_NAMENODE_QUOTA_USAGE_CACHED_SUBTREES_KEY, true);
+    // relinquish the locks after every directory
+    dfsConf.setInt(DFSConfigKeys.DFS_CONTENT_SUMMARY_LIMIT_KEY, 1);
+    MiniDFSCluster dfsCluster =
+        new MiniDFSCluster.Builder(dfsConf).numDataNodes(1).build();
+    try {
+      dfsCluster.waitActive();
+      DistributedFileSystem fs = dfsCluster.getFileSystem();
+      final Path top = new Path("/top");
+      final Path withQuota = new Path(top, "withQuota");
+      final Path withoutQuota = new Path(top, "withoutQuota");
+      assertTrue(fs.mkdirs(withQuota));
+      assertTrue(fs.mkdirs(withoutQuota));
+      fs.setQuota(withQuota, 100, HdfsConstants.QUOTA_DONT_SET);
+      for (int i = 0; i < 3; i++) {
+        DFSTestUtil.createFile(fs, new Path(withQuota, "file" + i), 1024,
+            (short) 1, 0L);
+        DFSTestUtil.createFile(fs, new Path(withoutQuota, "file" + i), 2048,
+            (short) 1, 0L);
+      }
+
+      ContentSummary cs = fs.getContentSummary(top);
+      QuotaUsage usage = fs.getQuotaUsage(top);
+      assertEquals(9, usage.getFileAndDirectoryCount());
+      assertEquals(cs.getFileAndDirectoryCount(),
+          usage.getFileAndDirectoryCount());
+      assertEquals(cs.getSpaceConsumed(), usage.getSpaceConsumed());
+      assertEquals(-1, usage.getQuota());
+      assertEquals(-1, usage.getSpaceQuota());
+
+      // Directories with a quota still report their own quota.
+      usage = fs.getQuotaUsage(withQuota);
+      assertEquals(100, usage.getQuota());
+      assertEquals(4, usage.getFileAndDirectoryCount());
+      assertTrue(dfsCluster.getNamesystem().getFSDirectory()
+          .getYieldCount() > 0);
+
+      // The traversal checks the directories outside of quota directories.
+      fs.setPermission(top, new FsPermission((short) 0777));
+      fs.setPermission(withoutQuota, new FsPermission((short) 0700));
+      UserGroupInformation ugi = UserGroupInformation.createUserForTesting(
+          "someone", new String[] {"somegroup"});
+      final FileSystem userFs = ugi.doAs(
+          (PrivilegedExceptionAction<FileSystem>) () ->
+              FileSystem.get(dfsCluster.getURI(), dfsConf));
+      try {
+        userFs.getQuotaUsage(top);
+        fail("getQuotaUsage should check the subdirectories");
+      } catch (AccessControlException e) {
+        GenericTestUtils.assertExceptionContains("Permission denied", e);
+      }
+    } finally {
+      dfsCluster.shutdown();
+    }
+  }
+
   /**
    * Test to set space quote using negative number.
    */
@@ -17,7 +17,11 @@
  */
 package org.apache.hadoop.hdfs;
 
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
+import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
 import org.apache.hadoop.hdfs.protocol.Block;
 import org.apache.hadoop.hdfs.protocol.LocatedBlock;
 import org.apache.hadoop.hdfs.protocol.LocatedStripedBlock;
@@ -30,6 +34,7 @@ import org.apache.hadoop.hdfs.server.datanode.DataNodeTestUtils;
 import org.apache.hadoop.hdfs.server.namenode.FSNamesystem;
 import org.apache.hadoop.hdfs.server.namenode.NameNodeAdapter;
 import org.apache.hadoop.hdfs.util.StripedBlockUtil;
+import org.apache.hadoop.io.IOUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -165,4 +170,53 @@ public class TestReadStripedFileWithDecoding {
       DataNodeTestUtils.setHeartbeatsDisabledForTests(dn, false);
     }
   }
+
+  /**
+   * A data block whose reads lag behind the rest of the stripe should be
+   * replaced by parity reads for the following stripes.
+   */
+  @Test
+  public void testReadWithSlowDataNode() throws Exception {
+    final Path file = new Path("/slow");
+    final int length = CELL_SIZE * NUM_DATA_UNITS * 4;
+    final byte[] bytes = StripedFileTestUtil.generateBytes(length);
+    DFSTestUtil.writeFile(dfs, file, bytes);
+
+    LocatedStripedBlock slb = (LocatedStripedBlock) dfs.getClient()
+        .getLocatedBlocks(file.toString(), 0, length).get(0);
+    final LocatedBlock[] blks = StripedBlockUtil.parseStripedBlockGroup(slb,
+        CELL_SIZE, NUM_DATA_UNITS, NUM_PARITY_UNITS);
+    final String slowAddr = blks[1].getLocations()[0].getXferAddr();
+
+    final DFSClientFaultInjector oldInjector = DFSClientFaultInjector.get();
+    DFSClientFaultInjector.set(new DFSClientFaultInjector() {
+      @Override
+      public void readFromStripedDatanodeDelay(DatanodeInfo datanode) {
+        if (datanode.getXferAddr().equals(slowAddr)) {
+          try {
+            Thread.sleep(500);
+          } catch (InterruptedException ignored) {
+          }
+        }
+      }
+    });
+    Configuration conf = new Configuration(cluster.getConfiguration(0));
+    conf.setLong(HdfsClientConfigKeys.StripedRead.SLOW_THRESHOLD_MILLIS_KEY,
+        100);
+    DistributedFileSystem slowFs = null;
+    try {
+      slowFs = (DistributedFileSystem) FileSystem.newInstance(
+          cluster.getURI(), conf);
+      byte[] buf = new byte[length];
+      try (DFSStripedInputStream in = (DFSStripedInputStream) slowFs
+          .getClient().open(file.toString())) {
+        IOUtils.readFully(in, buf, 0, length);
+        Assert.assertEquals(1, in.getSlowReadersSkipped());
+      }
+      Assert.assertArrayEquals(bytes, buf);
+    } finally {
+      DFSClientFaultInjector.set(oldInjector);
+      IOUtils.closeStream(slowFs);
+    }
+  }
 }
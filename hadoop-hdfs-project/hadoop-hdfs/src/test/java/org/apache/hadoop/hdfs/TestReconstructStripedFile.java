@@ -243,6 +243,30 @@ public class TestReconstructStripedFile {
         ReconstructionType.DataOnly, 1);
   }
 
+  @Test(timeout = 120000)
+  public void testRecoverWithReadBandwidthLimit() throws Exception {
+    conf.set(DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_KEY,
+        "64m");
+    cluster.shutdown();
+    cluster = new MiniDFSCluster.Builder(conf).numDataNodes(dnNum).build();
+    cluster.waitActive();
+    fs = cluster.getFileSystem();
+    fs.enableErasureCodingPolicy(ecPolicy.getName());
+    fs.getClient().setErasureCodingPolicy("/", ecPolicy.getName());
+    dnMap.clear();
+    List<DataNode> datanodes = cluster.getDataNodes();
+    for (int i = 0; i < dnNum; i++) {
+      dnMap.put(datanodes.get(i).getDatanodeId(), i);
+    }
+
+    int fileLen = (dataBlkNum + 1) * blockSize + blockSize / 10;
+    assertFileBlocksReconstruction("/testRecoverWithReadBandwidthLimit",
+        fileLen, ReconstructionType.DataOnly, 1);
+    for (DataNode dn : cluster.getDataNodes()) {
+      assertEquals(0, dn.getMetrics().getECReconstructionQueuedTasks());
+    }
+  }
+
   @Test(timeout = 120000)
   public void testRecoverAnyBlocks() throws Exception {
     int fileLen = parityBlkNum * blockSize + blockSize / 10;
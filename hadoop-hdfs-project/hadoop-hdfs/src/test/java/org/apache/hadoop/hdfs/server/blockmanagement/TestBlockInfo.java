@@ -131,6 +131,44 @@ public class TestBlockInfo {
     Assert.assertThat(blockInfos[NUM_BLOCKS/2].getStorageInfo(0), is(storage2));
   }
 
+  @Test
+  public void testCapacityTrimmedAfterExcessReplicaRemoved() {
+    BlockInfo blockInfo = new BlockInfoContiguous((short) 3);
+    DatanodeStorageInfo[] storages = DFSTestUtil.createDatanodeStorageInfos(6);
+    for (int i = 0; i < 4; i++) {
+      blockInfo.addStorage(storages[i], blockInfo);
+    }
+    Assert.assertEquals(4, blockInfo.getCapacity());
+
+    // A balancer move reuses the spare slot instead of reallocating.
+    Object[] triplets = blockInfo.triplets;
+    Assert.assertTrue(blockInfo.removeStorage(storages[1]));
+    blockInfo.addStorage(storages[4], blockInfo);
+    Assert.assertTrue(blockInfo.removeStorage(storages[0]));
+    Assert.assertSame(triplets, blockInfo.triplets);
+    Assert.assertEquals(3, blockInfo.numNodes());
+
+    // More than one unused slot shrinks back to one spare slot.
+    blockInfo.addStorage(storages[0], blockInfo);
+    blockInfo.addStorage(storages[1], blockInfo);
+    Assert.assertEquals(5, blockInfo.getCapacity());
+    Assert.assertTrue(blockInfo.removeStorage(storages[0]));
+    Assert.assertEquals(5, blockInfo.getCapacity());
+    Assert.assertTrue(blockInfo.removeStorage(storages[1]));
+    Assert.assertEquals(4, blockInfo.getCapacity());
+    Assert.assertEquals(3, blockInfo.numNodes());
+    Assert.assertEquals(-1, blockInfo.findStorageInfo(storages[0]));
+    Assert.assertEquals(-1, blockInfo.findStorageInfo(storages[1]));
+    for (int i : new int[] {2, 3, 4}) {
+      Assert.assertTrue(blockInfo.findStorageInfo(storages[i]) >= 0);
+    }
+
+    // It never shrinks below the replication factor plus the spare slot.
+    Assert.assertTrue(blockInfo.removeStorage(storages[2]));
+    Assert.assertEquals(4, blockInfo.getCapacity());
+    Assert.assertEquals(2, blockInfo.numNodes());
+  }
+
   @Test(expected=IllegalArgumentException.class)
   public void testAddStorageWithDifferentBlock() throws Exception {
     BlockInfo blockInfo1 = new BlockInfoContiguous(new Block(1000L), (short) 3);
@@ -1907,4 +1907,34 @@ public class TestBlockManager {
     // validateReconstructionWork return false, need to perform resetTargets().
     assertNull(work.getTargets());
   }
-}
\ No newline at end of file
+
+  @Test(timeout = 120000)
+  public void testFirstBlockReportYieldsLock() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setBoolean(
+        DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_YIELD_LOCK_ENABLED, true);
+    // yield after every replica of the report.
+    conf.setLong(DFSConfigKeys.DFS_NAMENODE_BLOCKREPORT_MAX_LOCK_HOLD_TIME, -1);
+    conf.setLong(DFSConfigKeys.DFS_NAMENODE_MIN_BLOCK_SIZE_KEY, 0);
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf)
+        .numDataNodes(1).build();
+    try {
+      cluster.waitActive();
+      final Path file = new Path("/testFirstBlockReportYieldsLock");
+      DistributedFileSystem fs = cluster.getFileSystem();
+      DFSTestUtil.createFile(fs, file, 1024, 20 * 1024, 1024, (short) 1, 0L);
+
+      // after a restart every storage sends its first block report again.
+      cluster.restartNameNode(true);
+      fs = cluster.getFileSystem();
+      DFSTestUtil.waitReplication(fs, file, (short) 1);
+      assertEquals(20, cluster.getNamesystem().getBlockManager()
+          .getDatanodeManager().getDatanodes().iterator().next()
+          .numBlocks());
+      assertTrue(MetricsAsserts.getLongCounter("BlockReportLockYields",
+          getMetrics("NameNodeActivity")) > 0);
+    } finally {
+      cluster.shutdown();
+    }
+  }
+}
@@ -30,6 +30,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -55,6 +58,7 @@ import org.apache.hadoop.hdfs.DFSTestUtil;
 import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.hadoop.hdfs.HdfsConfiguration;
 import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.hadoop.hdfs.protocol.datatransfer.PacketReceiver;
 import org.apache.hadoop.hdfs.client.HdfsClientConfigKeys;
 import org.apache.hadoop.hdfs.protocol.DatanodeInfo;
 import org.apache.hadoop.hdfs.protocol.ExtendedBlock;
@@ -132,6 +136,48 @@ public class TestDataNodeMetrics {
     }
   }
 
+  @Test
+  public void testTransferToPacketSize() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setInt(DFSConfigKeys.DFS_DATANODE_TRANSFERTO_PACKET_SIZE_KEY,
+        256 * 1024);
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf).build();
+    try {
+      FileSystem fs = cluster.getFileSystem();
+      Path tmpfile = new Path("/tmp.txt");
+      DFSTestUtil.createFile(fs, tmpfile, 1024 * 1024, (short) 1, 1L);
+      DFSTestUtil.readFile(fs, tmpfile);
+      DataNode datanode = cluster.getDataNodes().get(0);
+      MetricsRecordBuilder rb = getMetrics(datanode.getMetrics().name());
+      // Expect 4 packets of 256KB and the empty packet ending the block
+      assertCounter("SendDataPacketTransferNanosNumOps", 5L, rb);
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
+  @Test
+  public void testTransferToPacketSizeIsCapped() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setInt(DFSConfigKeys.DFS_DATANODE_TRANSFERTO_PACKET_SIZE_KEY,
+        4 * PacketReceiver.MAX_PACKET_SIZE);
+    conf.setInt(DFSConfigKeys.DFS_BYTES_PER_CHECKSUM_KEY, 4096);
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf).build();
+    try {
+      DataNode datanode = cluster.getDataNodes().get(0);
+      assertEquals(PacketReceiver.MAX_PACKET_SIZE,
+          datanode.getDnConf().transferToPacketSize);
+      FileSystem fs = cluster.getFileSystem();
+      Path tmpfile = new Path("/tmp.txt");
+      DFSTestUtil.createFile(fs, tmpfile, 32 * 1024 * 1024, (short) 1, 1L);
+      // Packets stay below the size clients accept.
+      assertEquals(32 * 1024 * 1024, DFSTestUtil.readFile(fs, tmpfile)
+          .length());
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
   @Test
   public void testReceivePacketMetrics() throws Exception {
     Configuration conf = new HdfsConfiguration();
@@ -155,12 +201,22 @@ public class TestDataNodeMetrics {
       assertCounter("FlushNanosNumOps", 2L, dnMetrics);
       // Expect two syncs, one from the hsync, one on close.
       assertCounter("FsyncNanosNumOps", 2L, dnMetrics);
+      // Data packets are verified by the last and only DataNode of the
+      // pipeline, which has no mirror. A packet resending data already on
+      // disk is verified but not written.
+      long packetsWritten =
+          getLongCounter("ReceivePacketWriteNanosNumOps", dnMetrics);
+      assertTrue(packetsWritten > 0);
+      assertTrue(getLongCounter("ReceivePacketVerifyNanosNumOps", dnMetrics)
+          >= packetsWritten);
+      assertCounter("ReceivePacketMirrorNanosNumOps", 0L, dnMetrics);
       // Wait for at least 1 rollover
       Thread.sleep((interval + 1) * 1000);
       // Check the receivePacket percentiles that should be non-zero
       String sec = interval + "s";
       assertQuantileGauges("FlushNanos" + sec, dnMetrics);
       assertQuantileGauges("FsyncNanos" + sec, dnMetrics);
+      assertQuantileGauges("ReceivePacketWriteNanos" + sec, dnMetrics);
     } finally {
       if (cluster != null) {cluster.shutdown();}
     }
@@ -481,6 +537,79 @@ public class TestDataNodeMetrics {
     }
   }
 
+  @Test(timeout = 120000)
+  public void testXceiverSlotWait() throws Exception {
+    checkXceiverSlotWait((datanode, writer, read) -> {
+      // Closing a writer frees a slot for the waiting read.
+      writer.close();
+      read.get();
+      assertTrue(getLongCounter("DataNodeXceiverSlotWaitNumOps",
+          getMetrics(datanode.getMetrics().name())) > 0);
+    });
+  }
+
+  @Test(timeout = 120000)
+  public void testXceiverSlotWaitEndsOnRaisedLimit() throws Exception {
+    checkXceiverSlotWait((datanode, writer, read) -> {
+      // Raising the limit admits the waiting read while both writers are
+      // still open, long before the slot wait times out.
+      datanode.reconfigureProperty(
+          DFSConfigKeys.DFS_DATANODE_MAX_RECEIVER_THREADS_KEY, "4");
+      read.get(30, TimeUnit.SECONDS);
+    });
+  }
+
+  /** Lets a read waiting for an xceiver slot go ahead. */
+  private interface XceiverSlotRelease {
+    void release(DataNode datanode, FSDataOutputStream writer, Future<?> read)
+        throws Exception;
+  }
+
+  /**
+   * Start a read on a DataNode limited to one xceiver while two writers are
+   * open, check that the read waits for a slot instead of being rejected,
+   * and let it go ahead with the given release.
+   */
+  private void checkXceiverSlotWait(XceiverSlotRelease release)
+      throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setInt(DFSConfigKeys.DFS_DATANODE_MAX_RECEIVER_THREADS_KEY, 1);
+    conf.setLong(DFSConfigKeys.DFS_DATANODE_XCEIVER_SLOT_WAIT_MS_KEY, 60000);
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf).build();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      FileSystem fs = cluster.getFileSystem();
+      DataNode datanode = cluster.getDataNodes().get(0);
+      Path file = new Path("/slotWait.dat");
+      DFSTestUtil.createFile(fs, file, 1024, (short) 1, 0L);
+
+      // Two open writers exceed the limit of one xceiver.
+      FSDataOutputStream out1 = fs.create(new Path("/writer1"));
+      out1.write(1);
+      out1.hflush();
+      FSDataOutputStream out2 = fs.create(new Path("/writer2"));
+      out2.write(1);
+      out2.hflush();
+      assertEquals(2, datanode.getXceiverCount());
+
+      Future<?> read = executor.submit(() -> {
+        DFSTestUtil.readFile(fs, file);
+        return null;
+      });
+      Thread.sleep(500);
+      assertFalse(read.isDone());
+      release.release(datanode, out1, read);
+      out1.close();
+      out2.close();
+
+      assertCounter("DataNodeXceiversRejected", 0L,
+          getMetrics(datanode.getMetrics().name()));
+    } finally {
+      executor.shutdownNow();
+      cluster.shutdown();
+    }
+  }
+
   @Test
   public void testDataNodeMXBeanActiveThreadCount() throws Exception {
     Configuration conf = new Configuration();
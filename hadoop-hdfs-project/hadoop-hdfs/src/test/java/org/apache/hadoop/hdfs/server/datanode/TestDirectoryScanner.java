@@ -18,6 +18,8 @@
 package org.apache.hadoop.hdfs.server.datanode;
 
 import static org.apache.hadoop.hdfs.protocol.Block.BLOCK_FILE_PREFIX;
+import static org.apache.hadoop.test.MetricsAsserts.getLongCounter;
+import static org.apache.hadoop.test.MetricsAsserts.getMetrics;
 import static org.apache.hadoop.util.Shell.getMemlockLimit;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -72,6 +74,7 @@ import org.apache.hadoop.hdfs.server.datanode.fsdataset.impl.FsDatasetTestUtil;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.impl.FsVolumeImpl;
 import org.apache.hadoop.hdfs.server.datanode.fsdataset.impl.LazyPersistTestCase;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.apache.hadoop.util.AutoCloseableLock;
 import org.apache.hadoop.util.Time;
@@ -400,6 +403,44 @@ public class TestDirectoryScanner {
     }
   }
 
+  @Test(timeout = 300000)
+  public void testDirectoryScanMetrics() throws Exception {
+    Configuration conf = getConfiguration();
+    cluster = new MiniDFSCluster.Builder(conf).numDataNodes(1).build();
+    try {
+      cluster.waitActive();
+      DataNode dn = cluster.getDataNodes().get(0);
+      bpid = cluster.getNamesystem().getBlockPoolId();
+      fds = DataNodeTestUtils.getFSDataset(dn);
+      client = cluster.getFileSystem().getClient();
+      scanner = new DirectoryScanner(fds, conf, dn.getMetrics());
+      scanner.setRetainDiffs(true);
+
+      createFile(GenericTestUtils.getMethodName(), BLOCK_LENGTH * 2, false);
+      // Delete one block file behind the back of the dataset.
+      deleteBlockFile();
+
+      MetricsRecordBuilder rb = getMetrics(dn.getMetrics().name());
+      long scans = getLongCounter("DirectoryScanNumOps", rb);
+      long blocks = getLongCounter("DirectoryScanBlocks", rb);
+      long differences = getLongCounter("DirectoryScanDifferences", rb);
+      scanner.reconcile();
+
+      rb = getMetrics(dn.getMetrics().name());
+      assertEquals(scans + 1, getLongCounter("DirectoryScanNumOps", rb));
+      assertEquals(blocks + 2, getLongCounter("DirectoryScanBlocks", rb));
+      assertEquals(differences + 1,
+          getLongCounter("DirectoryScanDifferences", rb));
+    } finally {
+      if (scanner != null) {
+        scanner.shutdown();
+        scanner = null;
+      }
+      cluster.shutdown();
+      cluster = null;
+    }
+  }
+
   /**
    * test scan only meta file NOT generate wrong folder structure warn log.
    */
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hdfs.server.datanode.erasurecode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.HdfsConfiguration;
+import org.apache.hadoop.hdfs.server.datanode.DataNode;
+import org.apache.hadoop.hdfs.server.datanode.metrics.DataNodeMetrics;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the scheduling of reconstruction tasks by {@link ErasureCodingWorker}.
+ */
+public class TestErasureCodingWorker {
+  private DataNode datanode;
+  private DataNodeMetrics metrics;
+
+  @Before
+  public void setUp() {
+    datanode = mock(DataNode.class);
+    metrics = mock(DataNodeMetrics.class);
+    when(datanode.getMetrics()).thenReturn(metrics);
+  }
+
+  @Test(timeout = 60000)
+  public void testLeastRedundancyReconstructedFirst() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    conf.setInt(DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_THREADS_KEY, 1);
+    ErasureCodingWorker worker = new ErasureCodingWorker(conf, datanode);
+    try {
+      // Saturate the single reconstruction thread.
+      final CountDownLatch running = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      worker.submitReconstruction(() -> {
+        running.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, 0);
+      assertTrue(running.await(30, TimeUnit.SECONDS));
+
+      final List<Integer> order = new CopyOnWriteArrayList<>();
+      final CountDownLatch done = new CountDownLatch(5);
+      for (int redundancy : new int[] {3, 1, 2, 1, 0}) {
+        final int r = redundancy;
+        worker.submitReconstruction(() -> {
+          order.add(r);
+          done.countDown();
+        }, redundancy);
+      }
+      release.countDown();
+      assertTrue(done.await(30, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList(0, 1, 1, 2, 3), order);
+      verify(metrics, times(6)).incrECReconstructionQueuedTasks();
+      verify(metrics, times(6)).decrECReconstructionQueuedTasks();
+    } finally {
+      worker.shutDown();
+    }
+  }
+
+  @Test
+  public void testRejectedTaskNotCountedAsQueued() {
+    ErasureCodingWorker worker =
+        new ErasureCodingWorker(new HdfsConfiguration(), datanode);
+    worker.shutDown();
+    try {
+      worker.submitReconstruction(() -> { }, 1);
+      fail("RejectedExecutionException expected");
+    } catch (RejectedExecutionException expected) {
+      // the pool was shut down
+    }
+    verify(metrics, times(1)).incrECReconstructionQueuedTasks();
+    verify(metrics, times(1)).decrECReconstructionQueuedTasks();
+  }
+
+  @Test
+  public void testReadThrottler() {
+    Configuration conf = new HdfsConfiguration();
+    assertNull(new ErasureCodingWorker(conf, datanode).getReadThrottler());
+
+    conf.setLong(DFSConfigKeys.DFS_DN_EC_RECONSTRUCTION_BANDWIDTHPERSEC_KEY,
+        1024 * 1024);
+    ErasureCodingWorker worker = new ErasureCodingWorker(conf, datanode);
+    try {
+      assertEquals(1024 * 1024, worker.getReadThrottler().getBandwidth());
+    } finally {
+      worker.shutDown();
+    }
+  }
+}
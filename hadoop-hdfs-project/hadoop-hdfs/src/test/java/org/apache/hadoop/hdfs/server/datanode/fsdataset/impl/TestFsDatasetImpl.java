@@ -55,6 +55,7 @@ import org.apache.hadoop.hdfs.server.common.Storage.StorageDirectory;
 import org.apache.hadoop.hdfs.server.datanode.BlockScanner;
 import org.apache.hadoop.hdfs.server.datanode.DNConf;
 import org.apache.hadoop.hdfs.server.datanode.DataNode;
+import org.apache.hadoop.hdfs.server.datanode.DataNodeFaultInjector;
 import org.apache.hadoop.hdfs.server.datanode.DataNodeTestUtils;
 import org.apache.hadoop.hdfs.server.datanode.DataStorage;
 import org.apache.hadoop.hdfs.server.datanode.FinalizedReplica;
@@ -95,10 +96,13 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.hadoop.hdfs.DFSConfigKeys.DFS_BLOCK_SIZE_KEY;
 import static org.apache.hadoop.hdfs.DFSConfigKeys.DFS_DN_CACHED_DFSUSED_CHECK_INTERVAL_MS;
 import static org.apache.hadoop.hdfs.DFSConfigKeys.DFS_DATANODE_SCAN_PERIOD_HOURS_KEY;
+import static org.apache.hadoop.test.MetricsAsserts.assertCounter;
+import static org.apache.hadoop.test.MetricsAsserts.getMetrics;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -1707,6 +1711,227 @@ public class TestFsDatasetImpl {
     }
   }
 
+  @Test
+  public void testCheckpointReplicaCaches() throws IOException {
+    final String bpid = "bpid-0";
+    for (int i = 0; i < 5; i++) {
+      ExtendedBlock eb = new ExtendedBlock(bpid, i);
+      dataset.createRbw(StorageType.DEFAULT, null, eb, false);
+    }
+    List<File> cacheFiles = new ArrayList<>();
+    for (FsVolumeSpi vol: dataset.getFsVolumeReferences()) {
+      BlockPoolSlice bpSlice = ((FsVolumeImpl)vol).getBlockPoolSlice(bpid);
+      File cacheFile = new File(replicaCacheRootDir + Path.SEPARATOR +
+          bpSlice.getDirectory().getCanonicalPath() + Path.SEPARATOR +
+          DataStorage.STORAGE_DIR_CURRENT + Path.SEPARATOR);
+      cacheFiles.add(cacheFile);
+    }
+    // The checkpoints are saved while the block pool is still running.
+    dataset.checkpointReplicaCaches();
+    for (File f : cacheFiles) {
+      assertTrue(new File(f, "replicas.checkpoint").exists());
+      assertFalse(new File(f, "replicas").exists());
+    }
+    // The save at shutdown replaces the checkpoints.
+    dataset.shutdownBlockPool(bpid);
+    for (File f : cacheFiles) {
+      assertFalse(new File(f, "replicas.checkpoint").exists());
+      assertTrue(new File(f, "replicas").exists());
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testRestartFromReplicaCheckpoint() throws Exception {
+    Configuration config = new HdfsConfiguration();
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(config)
+        .numDataNodes(1).storagesPerDatanode(1).build();
+    try {
+      cluster.waitActive();
+      DistributedFileSystem fs = cluster.getFileSystem();
+      String bpid = cluster.getNamesystem().getBlockPoolId();
+      Path deleted = new Path("/deleted");
+      DFSTestUtil.createFile(fs, deleted, 1024, (short) 1, 1L);
+      ExtendedBlock deletedBlock = DFSTestUtil.getFirstBlock(fs, deleted);
+
+      DataNode dn = cluster.getDataNodes().get(0);
+      FsDatasetImpl ds = (FsDatasetImpl) DataNodeTestUtils.getFSDataset(dn);
+      File currentDir;
+      try (FsVolumeReferences volumes = ds.getFsVolumeReferences()) {
+        currentDir = new File(((FsVolumeImpl) volumes.get(0))
+            .getBlockPoolSlice(bpid).getDirectory(),
+            DataStorage.STORAGE_DIR_CURRENT);
+      }
+      File checkpoint = new File(currentDir, "replicas.checkpoint");
+      ds.checkpointReplicaCaches();
+      byte[] checkpointData = Files.readAllBytes(checkpoint.toPath());
+
+      // Change the replicas after the checkpoint.
+      Path added = new Path("/added");
+      DFSTestUtil.createFile(fs, added, 1024, (short) 1, 2L);
+      ExtendedBlock addedBlock = DFSTestUtil.getFirstBlock(fs, added);
+      fs.delete(deleted, false);
+      GenericTestUtils.waitFor(() -> {
+        try {
+          return ds.getStoredBlock(bpid, deletedBlock.getBlockId()) == null;
+        } catch (IOException e) {
+          return false;
+        }
+      }, 100, 30000);
+
+      // Simulate a crash: only the checkpoint is left.
+      MiniDFSCluster.DataNodeProperties dnProps = cluster.stopDataNode(0);
+      assertTrue(new File(currentDir, "replicas").delete());
+      Files.write(checkpoint.toPath(), checkpointData);
+      assertTrue(cluster.restartDataNode(dnProps, true));
+      cluster.waitActive();
+
+      DataNode restarted = cluster.getDataNodes().get(0);
+      FsDatasetImpl restartedDs =
+          (FsDatasetImpl) DataNodeTestUtils.getFSDataset(restarted);
+      assertTrue(isLoadedFromCheckpoint(restartedDs, bpid));
+      // The directory scanner reconciles the replicas soon after startup.
+      GenericTestUtils.waitFor(() -> {
+        try {
+          return restartedDs.getStoredBlock(bpid,
+              addedBlock.getBlockId()) != null
+              && restartedDs.getStoredBlock(bpid,
+              deletedBlock.getBlockId()) == null;
+        } catch (IOException e) {
+          return false;
+        }
+      }, 100, 60000);
+      assertEquals(1024, DFSTestUtil.readFileAsBytes(fs, added).length);
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testAppendAfterReplicaCheckpoint() throws Exception {
+    Configuration config = new HdfsConfiguration();
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(config)
+        .numDataNodes(1).storagesPerDatanode(1).build();
+    try {
+      cluster.waitActive();
+      DistributedFileSystem fs = cluster.getFileSystem();
+      String bpid = cluster.getNamesystem().getBlockPoolId();
+      Path file = new Path("/appended");
+      ExtendedBlock appended = appendAfterCheckpointAndRestart(cluster, file);
+
+      FsDatasetImpl restartedDs = (FsDatasetImpl) DataNodeTestUtils
+          .getFSDataset(cluster.getDataNodes().get(0));
+      assertTrue(isLoadedFromCheckpoint(restartedDs, bpid));
+      // Full block reports are held until the replicas are reconciled, so
+      // the NameNode never sees the replica of the checkpoint.
+      cluster.triggerBlockReports();
+      assertFalse(restartedDs.isReplicaMapFromCheckpoint(bpid));
+      Block stored = restartedDs.getStoredBlock(bpid, appended.getBlockId());
+      assertEquals(appended.getGenerationStamp(), stored.getGenerationStamp());
+      assertEquals(1536, stored.getNumBytes());
+      assertEquals(0, cluster.getNamesystem().getCorruptReplicaBlocks());
+      assertEquals(0, cluster.getNamesystem().getPendingDeletionBlocks());
+      assertEquals(1536, DFSTestUtil.readFileAsBytes(fs, file).length);
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testBlockReportsHeldWhileReconcileFails() throws Exception {
+    final AtomicBoolean failReconcile = new AtomicBoolean(true);
+    final AtomicInteger failures = new AtomicInteger();
+    final DataNodeFaultInjector oldInjector = DataNodeFaultInjector.get();
+    DataNodeFaultInjector.set(new DataNodeFaultInjector() {
+      @Override
+      public void checkAndUpdate() throws IOException {
+        if (failReconcile.get()) {
+          failures.incrementAndGet();
+          throw new IOException("Injected reconcile failure");
+        }
+      }
+    });
+    Configuration config = new HdfsConfiguration();
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(config)
+        .numDataNodes(1).storagesPerDatanode(1).build();
+    try {
+      cluster.waitActive();
+      String bpid = cluster.getNamesystem().getBlockPoolId();
+      appendAfterCheckpointAndRestart(cluster, new Path("/heldReports"));
+
+      DataNode restarted = cluster.getDataNodes().get(0);
+      FsDatasetImpl restartedDs =
+          (FsDatasetImpl) DataNodeTestUtils.getFSDataset(restarted);
+      // The failed reconcile is run again, and no full block report is sent
+      // from the stale checkpoint meanwhile.
+      GenericTestUtils.waitFor(() -> failures.get() >= 2, 100, 60000);
+      assertCounter("BlockReportsNumOps", 0L,
+          getMetrics(restarted.getMetrics().name()));
+      assertTrue(restartedDs.isReplicaMapFromCheckpoint(bpid));
+
+      failReconcile.set(false);
+      cluster.triggerBlockReports();
+      assertFalse(restartedDs.isReplicaMapFromCheckpoint(bpid));
+      assertEquals(0, cluster.getNamesystem().getCorruptReplicaBlocks());
+    } finally {
+      DataNodeFaultInjector.set(oldInjector);
+      cluster.shutdown();
+    }
+  }
+
+  /**
+   * Save a replica checkpoint of the only DataNode, append to a new file of
+   * one block, and restart the DataNode from the now stale checkpoint as if
+   * it had crashed.
+   * @return the block of the file after the append.
+   */
+  private static ExtendedBlock appendAfterCheckpointAndRestart(
+      MiniDFSCluster cluster, Path file) throws Exception {
+    DistributedFileSystem fs = cluster.getFileSystem();
+    String bpid = cluster.getNamesystem().getBlockPoolId();
+    DFSTestUtil.createFile(fs, file, 1024, (short) 1, 1L);
+
+    DataNode dn = cluster.getDataNodes().get(0);
+    FsDatasetImpl ds = (FsDatasetImpl) DataNodeTestUtils.getFSDataset(dn);
+    File currentDir;
+    try (FsVolumeReferences volumes = ds.getFsVolumeReferences()) {
+      currentDir = new File(((FsVolumeImpl) volumes.get(0))
+          .getBlockPoolSlice(bpid).getDirectory(),
+          DataStorage.STORAGE_DIR_CURRENT);
+    }
+    File checkpoint = new File(currentDir, "replicas.checkpoint");
+    ds.checkpointReplicaCaches();
+    byte[] checkpointData = Files.readAllBytes(checkpoint.toPath());
+
+    // The append changes the generation stamp and length of the replica
+    // recorded in the checkpoint.
+    DFSTestUtil.appendFile(fs, file, 512);
+    ExtendedBlock appended = DFSTestUtil.getFirstBlock(fs, file);
+
+    // Simulate a crash: only the checkpoint is left.
+    MiniDFSCluster.DataNodeProperties dnProps = cluster.stopDataNode(0);
+    assertTrue(new File(currentDir, "replicas").delete());
+    Files.write(checkpoint.toPath(), checkpointData);
+    assertTrue(cluster.restartDataNode(dnProps, true));
+    cluster.waitActive();
+    return appended;
+  }
+
+  /**
+   * @return whether a volume loaded the replicas of the block pool from a
+   *         checkpoint, whether or not they have been reconciled since.
+   */
+  private static boolean isLoadedFromCheckpoint(FsDatasetImpl ds,
+      String bpid) throws IOException {
+    try (FsVolumeReferences volumes = ds.getFsVolumeReferences()) {
+      for (FsVolumeSpi vol : volumes) {
+        if (((FsVolumeImpl) vol).isReplicaMapFromCheckpoint(bpid)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   @Test
   public void testGetMetadataLengthOfFinalizedReplica() throws IOException {
     FsVolumeImpl fsv1 = Mockito.mock(FsVolumeImpl.class);
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hdfs.server.datanode.fsdataset.impl;
+
+import static org.apache.hadoop.test.MetricsAsserts.getLongCounter;
+import static org.apache.hadoop.test.MetricsAsserts.getMetrics;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
+import org.apache.hadoop.hdfs.DFSTestUtil;
+import org.apache.hadoop.hdfs.HdfsConfiguration;
+import org.apache.hadoop.hdfs.MiniDFSCluster;
+import org.apache.hadoop.hdfs.protocol.Block;
+import org.apache.hadoop.hdfs.protocol.ExtendedBlock;
+import org.apache.hadoop.hdfs.server.datanode.DataNode;
+import org.apache.hadoop.test.GenericTestUtils;
+import org.apache.hadoop.test.GenericTestUtils.LogCapturer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplicaReadCache}.
+ */
+public class TestReplicaReadCache {
+  private static final int FILE_LEN = 64 * 1024;
+
+  private File cacheDir;
+  private MiniDFSCluster cluster;
+  private FileSystem fs;
+  private DataNode dn;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration conf = new HdfsConfiguration();
+    cacheDir = GenericTestUtils.getTestDir("TestReplicaReadCache");
+    conf.set(DFSConfigKeys.DFS_DATANODE_READ_CACHE_DIR_KEY,
+        cacheDir.getAbsolutePath());
+    // Room for one cached block only.
+    conf.setLong(DFSConfigKeys.DFS_DATANODE_READ_CACHE_CAPACITY_KEY,
+        FILE_LEN + FILE_LEN / 2);
+    conf.setInt(DFSConfigKeys.DFS_DATANODE_READ_CACHE_ADMISSION_READS_KEY, 2);
+    cluster = new MiniDFSCluster.Builder(conf).numDataNodes(1).build();
+    cluster.waitActive();
+    fs = cluster.getFileSystem();
+    dn = cluster.getDataNodes().get(0);
+  }
+
+  @After
+  public void tearDown() {
+    if (cluster != null) {
+      cluster.shutdown();
+      cluster = null;
+    }
+  }
+
+  private long getCounter(String name) {
+    return getLongCounter(name, getMetrics(dn.getMetrics().name()));
+  }
+
+  private void waitForAdmissions(long admissions) throws Exception {
+    GenericTestUtils.waitFor(
+        () -> getCounter("ReadCacheAdmissions") == admissions, 100, 10000);
+  }
+
+  @Test(timeout = 60000)
+  public void testHotBlocksAreServedFromCache() throws Exception {
+    Path file1 = new Path("/file1");
+    DFSTestUtil.createFile(fs, file1, FILE_LEN, (short) 1, 1L);
+    byte[] expected = DFSTestUtil.readFileAsBytes(fs, file1);
+    assertEquals(0, getCounter("ReadCacheAdmissions"));
+
+    // The second read admits the block.
+    DFSTestUtil.readFileAsBytes(fs, file1);
+    waitForAdmissions(1);
+    long hits = getCounter("ReadCacheHits");
+    assertArrayEquals(expected, DFSTestUtil.readFileAsBytes(fs, file1));
+    assertTrue(getCounter("ReadCacheHits") > hits);
+
+    // Admitting a second block evicts the first one.
+    Path file2 = new Path("/file2");
+    DFSTestUtil.createFile(fs, file2, FILE_LEN, (short) 1, 2L);
+    DFSTestUtil.readFileAsBytes(fs, file2);
+    DFSTestUtil.readFileAsBytes(fs, file2);
+    waitForAdmissions(2);
+    assertEquals(1, getCounter("ReadCacheEvictions"));
+    assertArrayEquals(expected, DFSTestUtil.readFileAsBytes(fs, file1));
+  }
+
+  @Test(timeout = 60000)
+  public void testAppendInvalidatesCachedCopy() throws Exception {
+    Path file = new Path("/file");
+    DFSTestUtil.createFile(fs, file, FILE_LEN, (short) 1, 1L);
+    DFSTestUtil.readFileAsBytes(fs, file);
+    DFSTestUtil.readFileAsBytes(fs, file);
+    waitForAdmissions(1);
+
+    // The append bumps the generation stamp, so the copy is not used.
+    DFSTestUtil.appendFile(fs, file, 1024);
+    long hits = getCounter("ReadCacheHits");
+    assertEquals(FILE_LEN + 1024, DFSTestUtil.readFileAsBytes(fs, file).length);
+    assertEquals(hits, getCounter("ReadCacheHits"));
+  }
+
+  @Test(timeout = 60000)
+  public void testNonClientReadsUseReplica() throws Exception {
+    Path file = new Path("/file");
+    DFSTestUtil.createFile(fs, file, FILE_LEN, (short) 1, 1L);
+    DFSTestUtil.readFileAsBytes(fs, file);
+    DFSTestUtil.readFileAsBytes(fs, file);
+    waitForAdmissions(1);
+
+    // Scanners, checksums and transfers read the replica itself, and do not
+    // count as reads of the cache.
+    ExtendedBlock block = DFSTestUtil.getFirstBlock(fs, file);
+    long hits = getCounter("ReadCacheHits");
+    long misses = getCounter("ReadCacheMisses");
+    try (InputStream in = dn.getFSDataset().getBlockInputStream(block, 0)) {
+      assertTrue(in.read() >= 0);
+    }
+    assertEquals(hits, getCounter("ReadCacheHits"));
+    assertEquals(misses, getCounter("ReadCacheMisses"));
+  }
+
+  /** Read the block as a client twice, which admits it. */
+  private void admit(ExtendedBlock block) throws Exception {
+    for (int i = 0; i < 2; i++) {
+      try (InputStream in =
+               dn.getFSDataset().getBlockInputStreamForClientRead(block, 0)) {
+        assertTrue(in.read() >= 0);
+      }
+    }
+  }
+
+  private File getCopy(ExtendedBlock block) {
+    return new File(cacheDir, block.getBlockPoolId() + "_" +
+        block.getBlockId() + "_" + block.getGenerationStamp());
+  }
+
+  @Test(timeout = 60000)
+  public void testCorruptCopyIsNotCached() throws Exception {
+    Path file = new Path("/file");
+    DFSTestUtil.createFile(fs, file, FILE_LEN, (short) 1, 1L);
+    ExtendedBlock block = DFSTestUtil.getFirstBlock(fs, file);
+    // The copy no longer matches the checksums in the meta file.
+    cluster.corruptReplica(dn, block);
+    LogCapturer logs = LogCapturer.captureLogs(ReplicaReadCache.LOG);
+    try {
+      admit(block);
+      GenericTestUtils.waitFor(
+          () -> logs.getOutput().contains("Failed to cache"), 100, 10000);
+    } finally {
+      logs.stopCapturing();
+    }
+    assertEquals(0, getCounter("ReadCacheAdmissions"));
+    assertFalse(getCopy(block).exists());
+  }
+
+  @Test(timeout = 60000)
+  public void testInvalidateDropsCachedCopy() throws Exception {
+    Path file = new Path("/file");
+    DFSTestUtil.createFile(fs, file, FILE_LEN, (short) 1, 1L);
+    ExtendedBlock block = DFSTestUtil.getFirstBlock(fs, file);
+    admit(block);
+    waitForAdmissions(1);
+    assertTrue(getCopy(block).exists());
+
+    // The NameNode invalidates a replica reported corrupt by a client.
+    dn.getFSDataset().invalidate(block.getBlockPoolId(),
+        new Block[] {block.getLocalBlock()});
+    assertFalse(getCopy(block).exists());
+  }
+
+  @Test(timeout = 60000)
+  public void testStartupOnlyRemovesCopies() throws Exception {
+    MiniDFSCluster.DataNodeProperties dnProps = cluster.stopDataNode(0);
+    File copy = new File(cacheDir, "BP-1-127.0.0.1-1_1073741825_1001");
+    File tmp = new File(cacheDir, "BP-1-127.0.0.1-1_-9223372036854775792_1.tmp");
+    File other = new File(cacheDir, "VERSION");
+    for (File f : new File[] {copy, tmp, other}) {
+      assertTrue(f.createNewFile());
+    }
+    assertTrue(cluster.restartDataNode(dnProps, true));
+    cluster.waitActive();
+    assertFalse(copy.exists());
+    assertFalse(tmp.exists());
+    assertTrue(other.exists());
+    assertTrue(other.delete());
+  }
+}
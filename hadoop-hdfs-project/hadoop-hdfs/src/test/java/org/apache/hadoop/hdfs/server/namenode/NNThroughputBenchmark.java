@@ -20,6 +20,7 @@ package org.apache.hadoop.hdfs.server.namenode;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.ArrayList;
@@ -145,6 +146,18 @@ public class NNThroughputBenchmark implements Tool {
       nameNode.stop();
   }
 
+  /**
+   * Heap used by this JVM after a full GC, or -1 when benchmarking a remote
+   * name-node, whose heap cannot be observed from here.
+   */
+  static long getNameNodeHeapUsed() {
+    if (nameNode == null) {
+      return -1;
+    }
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
   static void setNameNodeLoggingLevel(Level logLevel) {
     LOG.info("Log level = " + logLevel.toString());
     // change log level to NameNode logs
@@ -177,6 +190,8 @@ public class NNThroughputBenchmark implements Tool {
     protected boolean keepResults = false;// don't clean base directory on exit
     protected Level logLevel;             // logging level, ERROR by default
     protected int ugcRefreshCount = 0;    // user group cache refresh count
+    protected long heapUsedBefore = -1;   // heap used before the ops
+    protected long heapUsedAfter = -1;    // heap used after the ops
 
     protected List<StatsDaemon> daemons;
 
@@ -261,6 +276,7 @@ public class NNThroughputBenchmark implements Tool {
         setNameNodeLoggingLevel(logLevel);
         for(tIdx=0; tIdx < numThreads; tIdx++)
           daemons.add(new StatsDaemon(tIdx, opsPerThread[tIdx], this));
+        heapUsedBefore = getNameNodeHeapUsed();
         start = Time.now();
         LOG.info("Starting " + numOpsRequired + " " + getOpName() + "(s).");
         for(StatsDaemon d : daemons)
@@ -274,6 +290,7 @@ public class NNThroughputBenchmark implements Tool {
           incrementStats(d.localNumOpsExecuted, d.localCumulativeTime);
           // System.out.println(d.toString() + ": ops Exec = " + d.localNumOpsExecuted);
         }
+        heapUsedAfter = getNameNodeHeapUsed();
       }
     }
 
@@ -383,6 +400,14 @@ public class NNThroughputBenchmark implements Tool {
       LOG.info("Elapsed Time: " + getElapsedTime());
       LOG.info(" Ops per sec: " + getOpsPerSecond());
       LOG.info("Average Time: " + getAverageTime());
+      if (heapUsedBefore >= 0 && heapUsedAfter >= 0) {
+        // The heap also holds the benchmark clients, but these are the same
+        // before and after the run, so the delta is the namespace growth.
+        FSNamesystem fsn = nameNode.getNamesystem();
+        LOG.info("  Heap delta: " + (heapUsedAfter - heapUsedBefore));
+        LOG.info(" Inodes used: " + fsn.getFilesTotal());
+        LOG.info(" Blocks used: " + fsn.getBlocksTotal());
+      }
     }
   }
 
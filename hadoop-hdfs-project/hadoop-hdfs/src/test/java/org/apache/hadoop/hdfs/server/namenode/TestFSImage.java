@@ -1155,6 +1155,64 @@ public class TestFSImage {
     }
   }
 
+  @Test
+  public void testParallelLoadSnapshotDiffs() throws IOException {
+    Configuration conf = new Configuration();
+    conf.set(DFSConfigKeys.DFS_IMAGE_PARALLEL_LOAD_KEY, "true");
+    conf.set(DFSConfigKeys.DFS_IMAGE_PARALLEL_INODE_THRESHOLD_KEY, "1");
+    conf.set(DFSConfigKeys.DFS_IMAGE_PARALLEL_TARGET_SECTIONS_KEY, "4");
+    conf.set(DFSConfigKeys.DFS_IMAGE_PARALLEL_THREADS_KEY, "4");
+
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf).build();
+    try {
+      cluster.waitActive();
+      DistributedFileSystem fs = cluster.getFileSystem();
+      FSDirectory fsdir = cluster.getNameNode().namesystem.getFSDirectory();
+      File workingDir = GenericTestUtils.getTestDir();
+      File preRestartTree = new File(workingDir, "preRestartDiffTree");
+      File postRestartTree = new File(workingDir, "postRestartDiffTree");
+
+      Path baseDir = new Path("/snapdiff");
+      fs.mkdirs(baseDir);
+      fs.allowSnapshot(baseDir);
+      for (int i = 0; i < 5; i++) {
+        Path dir = new Path(baseDir, Integer.toString(i));
+        for (int j = 0; j < 5; j++) {
+          DFSTestUtil.createFile(fs, new Path(dir, Integer.toString(j)),
+              1, (short) 1, 0L);
+        }
+        fs.createSnapshot(baseDir, "snap_" + i);
+        fs.delete(new Path(dir, "0"), false);
+        fs.rename(new Path(dir, "1"), new Path(dir, "renamed"));
+        fs.setReplication(new Path(dir, "2"), (short) 2);
+      }
+      SnapshotTestHelper.dumpTree2File(fsdir, preRestartTree);
+
+      fs.setSafeMode(SafeModeAction.SAFEMODE_ENTER);
+      fs.saveNamespace();
+      fs.setSafeMode(SafeModeAction.SAFEMODE_LEAVE);
+
+      FsImageProto.FileSummary summary = FSImageTestUtil.
+          getLatestImageSummary(cluster);
+      ArrayList<Section> sections = Lists.newArrayList(
+          summary.getSectionsList());
+      ArrayList<Section> diffSubSections =
+          getSubSectionsOfName(sections, SectionName.SNAPSHOT_DIFF_SUB);
+      assertTrue(diffSubSections.size() > 1);
+      ensureSubSectionsAlignWithParent(diffSubSections,
+          getSubSectionsOfName(sections, SectionName.SNAPSHOT_DIFF).get(0));
+
+      cluster.restartNameNode();
+      cluster.waitActive();
+      fsdir = cluster.getNameNode().namesystem.getFSDirectory();
+      SnapshotTestHelper.dumpTree2File(fsdir, postRestartTree);
+      SnapshotTestHelper.compareDumpedTreeInFile(
+          preRestartTree, postRestartTree, true);
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
   private void ensureSubSectionsAlignWithParent(ArrayList<Section> subSec,
       Section parent) {
     // For each sub-section, check its offset + length == the next section
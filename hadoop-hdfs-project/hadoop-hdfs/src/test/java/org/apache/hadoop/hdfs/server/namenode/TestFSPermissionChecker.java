@@ -32,14 +32,18 @@ import static org.apache.hadoop.fs.permission.FsAction.READ_WRITE;
 import static org.apache.hadoop.fs.permission.FsAction.WRITE;
 import static org.apache.hadoop.fs.permission.FsAction.WRITE_EXECUTE;
 import static org.apache.hadoop.hdfs.server.namenode.AclTestHelpers.aclEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
@@ -47,6 +51,7 @@ import org.apache.hadoop.fs.permission.AclEntry;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.fs.permission.PermissionStatus;
+import org.apache.hadoop.hdfs.DFSConfigKeys;
 import org.apache.hadoop.hdfs.protocol.HdfsConstants;
 import org.apache.hadoop.hdfs.server.namenode.FSDirectory.DirOp;
 import org.apache.hadoop.hdfs.server.namenode.snapshot.Snapshot;
@@ -79,6 +84,11 @@ public class TestFSPermissionChecker {
   @Before
   public void setUp() throws IOException {
     Configuration conf = new Configuration();
+    dir = new FSDirectory(mockNamesystem(), conf);
+    inodeRoot = dir.getRoot();
+  }
+
+  private static FSNamesystem mockNamesystem() {
     FSNamesystem fsn = mock(FSNamesystem.class);
     doAnswer(new Answer() {
       @Override
@@ -88,8 +98,7 @@ public class TestFSPermissionChecker {
         return new PermissionStatus(SUPERUSER, SUPERGROUP, perm);
       }
     }).when(fsn).createFsOwnerPermissions(any(FsPermission.class));
-    dir = new FSDirectory(fsn, conf);
-    inodeRoot = dir.getRoot();
+    return fsn;
   }
 
   @Test
@@ -396,6 +405,55 @@ public class TestFSPermissionChecker {
     assertPermissionDenied(CLARK, "/file1", ALL);
   }
 
+  @Test
+  public void testTraverseAccessCache() throws IOException {
+    Configuration conf = new Configuration();
+    conf.setInt(DFSConfigKeys.DFS_NAMENODE_TRAVERSE_ACCESS_CACHE_SIZE_KEY, 16);
+    FSNamesystem fsn = mockNamesystem();
+    when(fsn.hasWriteLock()).thenReturn(true);
+    dir = new FSDirectory(fsn, conf);
+    inodeRoot = dir.getRoot();
+    TraverseAccessCache cache = dir.getTraverseAccessCache();
+
+    INodeDirectory a = new INodeDirectory(dir.allocateNewInodeId(),
+        "a".getBytes("UTF-8"), PermissionStatus.createImmutable(
+            "bruce", "sales", FsPermission.createImmutable((short) 0750)), 0L);
+    inodeRoot.addChild(a);
+    createINodeFile(a, "file1", "diana", "sales", (short) 0644);
+    assertPermissionGranted(DIANA, "/a/file1", READ);
+    assertEquals(2, cache.size());
+    // Granted from the cache.
+    assertPermissionGranted(DIANA, "/a/file1", READ);
+    assertEquals(2, cache.size());
+
+    // The grant is not used once the groups of the user change.
+    assertTrue(cache.isTraversable(a.getId(), "diana",
+        DIANA.getGroupsSet()));
+    assertFalse(cache.isTraversable(a.getId(), "diana",
+        Collections.emptySet()));
+
+    // Changing the permission drops the grant.
+    FSDirAttrOp.unprotectedSetPermission(dir,
+        dir.getINodesInPath("/a", DirOp.WRITE),
+        FsPermission.createImmutable((short) 0700));
+    assertEquals(1, cache.size());
+    assertPermissionDenied(DIANA, "/a/file1", READ);
+
+    FSDirAttrOp.unprotectedSetPermission(dir,
+        dir.getINodesInPath("/a", DirOp.WRITE),
+        FsPermission.createImmutable((short) 0750));
+    assertPermissionGranted(DIANA, "/a/file1", READ);
+    // So does changing the ACL.
+    FSDirAclOp.unprotectedSetAcl(dir, dir.getINodesInPath("/a", DirOp.WRITE),
+        Arrays.asList(
+            aclEntry(ACCESS, USER, ALL),
+            aclEntry(ACCESS, USER, "diana", NONE),
+            aclEntry(ACCESS, GROUP, READ_EXECUTE),
+            aclEntry(ACCESS, MASK, READ_EXECUTE),
+            aclEntry(ACCESS, OTHER, NONE)), true);
+    assertPermissionDenied(DIANA, "/a/file1", READ);
+  }
+
   private void addAcl(INodeWithAdditionalFields inode, AclEntry... acl)
       throws IOException {
     AclStorage.updateINodeAcl(inode,
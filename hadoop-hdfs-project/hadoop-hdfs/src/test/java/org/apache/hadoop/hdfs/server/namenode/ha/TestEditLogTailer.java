@@ -160,6 +160,50 @@ public class TestEditLogTailer {
     }
   }
 
+  @Test(timeout = 60000)
+  public void testStreamsSelectedWithoutWriteLock() throws Exception {
+    Configuration conf = getConf();
+    conf.setInt(DFSConfigKeys.DFS_HA_TAILEDITS_PERIOD_KEY, 0);
+    HAUtil.setAllowStandbyReads(conf, true);
+
+    MiniDFSCluster cluster = new MiniDFSCluster.Builder(conf)
+        .nnTopology(MiniDFSNNTopology.simpleHATopology())
+        .numDataNodes(0)
+        .build();
+    try {
+      cluster.waitActive();
+      cluster.transitionToActive(0);
+      NameNode nn1 = cluster.getNameNode(0);
+      NameNode nn2 = cluster.getNameNode(1);
+      final FSNamesystem standbyNs = nn2.getNamesystem();
+      final AtomicInteger lockedSelects = new AtomicInteger();
+      FSEditLog spyEditLog = NameNodeAdapter.spyOnEditLog(nn2);
+      Mockito.doAnswer(invocation -> {
+        if (standbyNs.hasWriteLock()) {
+          lockedSelects.incrementAndGet();
+        }
+        return invocation.callRealMethod();
+      }).when(spyEditLog).selectInputStreams(Mockito.anyLong(),
+          Mockito.anyLong(), Mockito.any(), Mockito.anyBoolean(),
+          Mockito.anyBoolean());
+
+      for (int i = 0; i < DIRS_TO_MAKE; i++) {
+        NameNodeAdapter.mkdirs(nn1, getDirPath(i),
+            new PermissionStatus("test", "test",
+                new FsPermission((short)00755)), true);
+      }
+      HATestUtil.waitForStandbyToCatchUp(nn1, nn2);
+      for (int i = 0; i < DIRS_TO_MAKE; i++) {
+        assertTrue(NameNodeAdapter.getFileInfo(nn2,
+            getDirPath(i), false, false, false).isDirectory());
+      }
+      assertEquals("Edit streams selected under the write lock",
+          0, lockedSelects.get());
+    } finally {
+      cluster.shutdown();
+    }
+  }
+
   @Test
   public void testTailerBackoff() throws Exception {
     Configuration conf = new Configuration();
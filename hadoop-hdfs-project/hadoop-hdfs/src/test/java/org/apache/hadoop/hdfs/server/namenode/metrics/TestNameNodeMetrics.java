@@ -951,6 +951,19 @@ public class TestNameNodeMetrics {
         startWriteCounter);
   }
 
+  /**
+   * Test that edits logged through the async edit log record the time they
+   * waited in the pending queue.
+   */
+  @Test
+  public void testEditLogQueueWaitMetric() throws Exception {
+    fs.mkdirs(getTestPath("queueWait"));
+    MetricsRecordBuilder rb = getMetrics(NN_METRICS);
+    assertCounterGt("EditLogQueueWaitMicrosNumOps", 0L, rb);
+    Thread.sleep((PERCENTILES_INTERVAL + 1) * 1000);
+    assertQuantileGauges("EditLogQueueWaitMicros1s", rb);
+  }
+
   /**
    * Test metrics indicating the number of active clients and the files under
    * construction
@@ -34,6 +34,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
 import net.jcip.annotations.NotThreadSafe;
@@ -82,6 +86,7 @@ import org.apache.hadoop.security.token.Token;
 import org.apache.hadoop.test.GenericTestUtils;
 import org.apache.hadoop.util.DataChecksum;
 import org.apache.hadoop.util.Time;
+import org.apache.hadoop.util.Waitable;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
@@ -255,6 +260,71 @@ public class TestShortCircuitCache {
   }
   
   
+  @Test(timeout=60000)
+  public void testCacheStatistics() throws Exception {
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch waiting = new CountDownLatch(1);
+    final ShortCircuitCache cache =
+        new ShortCircuitCache(2, 10000000, 1, 10000000, 1, 10000, 0) {
+          @Override
+          protected ShortCircuitReplicaInfo fetch(ExtendedBlockId key,
+              Waitable<ShortCircuitReplicaInfo> waitable)
+              throws RetriableException {
+            waiting.countDown();
+            return super.fetch(key, waitable);
+          }
+        };
+    final TestFileDescriptorPair pair = new TestFileDescriptorPair();
+    final ExtendedBlockId key = new ExtendedBlockId(123, "test_bp1");
+    final ShortCircuitReplicaCreator creator =
+        new SimpleReplicaCreator(123, cache, pair);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // Load the replica in another thread, and look it up while the load
+      // is in progress.
+      Future<ShortCircuitReplicaInfo> loader = executor.submit(
+          () -> cache.fetchOrCreate(key, () -> {
+            try {
+              loading.countDown();
+              waiting.await();
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+            return creator.createShortCircuitReplicaInfo();
+          }));
+      loading.await();
+      ShortCircuitReplicaInfo waited = cache.fetchOrCreate(key,
+          new ShortCircuitReplicaCreator() {
+            @Override
+            public ShortCircuitReplicaInfo createShortCircuitReplicaInfo() {
+              Assert.fail("expected to wait for the loading replica.");
+              return null;
+            }
+          });
+      ShortCircuitReplicaInfo loaded = loader.get();
+      Assert.assertSame(loaded, waited);
+      Assert.assertEquals(1, cache.getMissCount());
+      Assert.assertEquals(1, cache.getWaitCount());
+      Assert.assertEquals(0, cache.getHitCount());
+      Assert.assertTrue(cache.getTotalLoadTimeNs() > 0);
+
+      // A lookup of the loaded replica is a hit.
+      ShortCircuitReplicaInfo hit = cache.fetchOrCreate(key, creator);
+      Assert.assertSame(loaded, hit);
+      Assert.assertEquals(1, cache.getMissCount());
+      Assert.assertEquals(1, cache.getWaitCount());
+      Assert.assertEquals(1, cache.getHitCount());
+      Assert.assertEquals(0, cache.getEvictionCount());
+      loaded.getReplica().unref();
+      waited.getReplica().unref();
+      hit.getReplica().unref();
+    } finally {
+      executor.shutdownNow();
+      pair.close();
+      cache.close();
+    }
+  }
+
   @Test(timeout=60000)
   public void testEviction() throws Exception {
     final ShortCircuitCache cache =